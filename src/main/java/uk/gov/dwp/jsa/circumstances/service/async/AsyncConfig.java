@@ -0,0 +1,60 @@
+package uk.gov.dwp.jsa.circumstances.service.async;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Runs {@code @Async} work on a bounded queue, rejecting calls made while it is full instead of piling them up.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncConfig.class);
+
+    static final String EXECUTOR_NAME = "circumstances.async";
+
+    private final AsyncProperties properties;
+
+    @Autowired
+    public AsyncConfig(final AsyncProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor asyncExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("circumstances-async-");
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder asyncExecutorMetrics(final ThreadPoolTaskExecutor asyncExecutor) {
+        return registry -> new ExecutorServiceMetrics(asyncExecutor.getThreadPoolExecutor(), EXECUTOR_NAME,
+                Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return asyncExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> LOGGER.error("Error running {} in the background", method.getName(), ex);
+    }
+}
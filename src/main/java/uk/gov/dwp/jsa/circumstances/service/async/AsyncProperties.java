@@ -0,0 +1,52 @@
+package uk.gov.dwp.jsa.circumstances.service.async;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.async")
+public class AsyncProperties {
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10;
+    private static final int DEFAULT_MAX_DB_CONNECTIONS = 2;
+
+    /**
+     * Threads running {@code @Async} work.
+     */
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    /**
+     * {@code @Async} calls waiting for a thread, further calls are rejected.
+     */
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Database connections background work may hold at the same time, well below the connection pool size.
+     */
+    private int maxDbConnections = DEFAULT_MAX_DB_CONNECTIONS;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(final int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxDbConnections() {
+        return maxDbConnections;
+    }
+
+    public void setMaxDbConnections(final int maxDbConnections) {
+        this.maxDbConnections = maxDbConnections;
+    }
+}
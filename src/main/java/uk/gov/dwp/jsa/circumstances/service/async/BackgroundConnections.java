@@ -0,0 +1,49 @@
+package uk.gov.dwp.jsa.circumstances.service.async;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps the database connections held by background work, which takes a permit around each transaction.
+ */
+@Component
+public class BackgroundConnections implements MeterBinder {
+
+    private final int maxConnections;
+    private final Semaphore permits;
+
+    @Autowired
+    public BackgroundConnections(final AsyncProperties properties) {
+        this.maxConnections = properties.getMaxDbConnections();
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    public <T> T call(final Supplier<T> work) throws InterruptedException {
+        permits.acquire();
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getActive() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("circumstances.async.db.connections.active", this, BackgroundConnections::getActive)
+                .description("Database connections held by background work")
+                .register(registry);
+        Gauge.builder("circumstances.async.db.connections.max", this, connections -> connections.maxConnections)
+                .description("Database connections background work may hold")
+                .register(registry);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The bounded executor running {@code @Async} work and the limit on the database connections it may hold.
+ */
+package uk.gov.dwp.jsa.circumstances.service.async;
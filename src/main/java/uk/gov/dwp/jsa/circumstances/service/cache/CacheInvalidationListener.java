@@ -0,0 +1,261 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the evictions published by the other nodes. Sequence numbers arrive in commit order, so a gap only
+ * flushes the cache once it outlives the gap timeout.
+ */
+@Component
+public class CacheInvalidationListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationListener.class);
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+    private static final int MAX_MISSING_PER_NODE = 1000;
+
+    private final CircumstancesCache cache;
+    private final CacheInvalidationPublisher publisher;
+    private final RecentWrites recentWrites;
+    private final DataSourceProperties dataSourceProperties;
+    private final Clock clock;
+    private final boolean enabled;
+    private final String channel;
+    private final long reconnectDelayMillis;
+    private final int pollTimeoutMillis;
+    private final Duration gapTimeout;
+    private final Duration nodeExpiry;
+    private final Map<String, NodeSequence> sequenceByNode = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public CacheInvalidationListener(
+            final CircumstancesCache cache,
+            final CacheInvalidationPublisher publisher,
+            final RecentWrites recentWrites,
+            final DataSourceProperties dataSourceProperties,
+            final CircumstancesCacheProperties properties
+    ) {
+        this(cache, publisher, recentWrites, dataSourceProperties, properties, Clock.systemUTC());
+    }
+
+    CacheInvalidationListener(
+            final CircumstancesCache cache,
+            final CacheInvalidationPublisher publisher,
+            final RecentWrites recentWrites,
+            final DataSourceProperties dataSourceProperties,
+            final CircumstancesCacheProperties properties,
+            final Clock clock
+    ) {
+        this.cache = cache;
+        this.publisher = publisher;
+        this.recentWrites = recentWrites;
+        this.dataSourceProperties = dataSourceProperties;
+        this.clock = clock;
+        this.enabled = properties.isEnabled() && properties.getInvalidation().isEnabled();
+        this.channel = properties.getInvalidation().getChannel();
+        this.reconnectDelayMillis = properties.getInvalidation().getReconnectDelay().toMillis();
+        this.pollTimeoutMillis = (int) properties.getInvalidation().getPollTimeout().toMillis();
+        this.gapTimeout = properties.getInvalidation().getGapTimeout();
+        this.nodeExpiry = properties.getInvalidation().getNodeExpiry();
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "circumstances-cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(reconnectDelayMillis);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                LOGGER.info("Listening for cache invalidations on channel: {}", channel);
+                // anything published before LISTEN took effect was missed
+                resetAndFlush();
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    announceAbandoned(connection);
+                    final PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                    checkForMissedInvalidations();
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    LOGGER.warn("Lost the cache invalidation connection, reconnecting in {} ms",
+                            reconnectDelayMillis, e);
+                    resetAndFlush();
+                    pauseBeforeReconnecting();
+                }
+            }
+        }
+    }
+
+    private void announceAbandoned(final Connection connection) throws SQLException {
+        final List<CacheInvalidationMessage> abandoned = publisher.takeAbandoned();
+        if (abandoned.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL)) {
+            for (CacheInvalidationMessage message : abandoned) {
+                statement.setString(1, channel);
+                statement.setString(2, message.toPayload());
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            publisher.returnAbandoned(abandoned);
+            throw e;
+        }
+    }
+
+    void handle(final String payload) {
+        final CacheInvalidationMessage message;
+        try {
+            message = CacheInvalidationMessage.fromPayload(payload);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Flushing the cache after an unreadable invalidation: {}", payload, e);
+            flush();
+            return;
+        }
+        if (publisher.getNodeId().equals(message.getNodeId())) {
+            return;
+        }
+        final Instant now = clock.instant();
+        final NodeSequence node = sequenceByNode.get(message.getNodeId());
+        if (node == null) {
+            sequenceByNode.put(message.getNodeId(), new NodeSequence(message.getSequence(), now));
+        } else if (!node.receive(message.getSequence(), now)) {
+            LOGGER.warn("Flushing the cache after skipping more than {} invalidations from node {}",
+                    MAX_MISSING_PER_NODE, message.getNodeId());
+            flush();
+        }
+        if (!message.getIds().isEmpty() || !message.getClaimantIds().isEmpty()) {
+            recentWrites.recordAll(message.getIds(), message.getClaimantIds());
+            cache.evictLocally(message.getIds(), message.getClaimantIds());
+        }
+    }
+
+    void checkForMissedInvalidations() {
+        final Instant now = clock.instant();
+        final Instant missedBefore = now.minus(gapTimeout);
+        for (Map.Entry<String, NodeSequence> node : sequenceByNode.entrySet()) {
+            final Instant oldestMissing = node.getValue().oldestMissing();
+            if (oldestMissing != null && oldestMissing.isBefore(missedBefore)) {
+                LOGGER.warn("Flushing the cache after missing invalidations {} from node {}",
+                        node.getValue().missing.keySet(), node.getKey());
+                flush();
+                break;
+            }
+        }
+        final Instant expiredBefore = now.minus(nodeExpiry);
+        sequenceByNode.values().removeIf(node -> node.lastHeard.isBefore(expiredBefore));
+    }
+
+    int knownNodes() {
+        return sequenceByNode.size();
+    }
+
+    private void flush() {
+        // a full flush covers whatever was missed, so stop waiting for it
+        sequenceByNode.values().forEach(node -> node.missing.clear());
+        recentWrites.recordEverything();
+        cache.evictAllLocally();
+    }
+
+    private void resetAndFlush() {
+        sequenceByNode.clear();
+        recentWrites.recordEverything();
+        cache.evictAllLocally();
+    }
+
+    private void pauseBeforeReconnecting() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static final class NodeSequence {
+        private final Map<Long, Instant> missing = new HashMap<>();
+        private long highest;
+        private Instant lastHeard;
+
+        private NodeSequence(final long sequence, final Instant now) {
+            this.highest = sequence;
+            this.lastHeard = now;
+        }
+
+        // false when the sequence skips too many numbers to keep track of
+        private boolean receive(final long sequence, final Instant now) {
+            lastHeard = now;
+            if (sequence <= highest) {
+                missing.remove(sequence);
+                return true;
+            }
+            final long skipped = sequence - highest - 1;
+            highest = sequence;
+            if (skipped + missing.size() > MAX_MISSING_PER_NODE) {
+                return false;
+            }
+            for (long next = sequence - skipped; next < sequence; next++) {
+                missing.put(next, now);
+            }
+            return true;
+        }
+
+        private Instant oldestMissing() {
+            return missing.values().stream().min(Instant::compareTo).orElse(null);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cache invalidation notification payload, {@code node|sequence|id,id|claimantId}.
+ */
+final class CacheInvalidationMessage {
+
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String ID_SEPARATOR = ",";
+    private static final int NODE_FIELD = 0;
+    private static final int SEQUENCE_FIELD = 1;
+    private static final int IDS_FIELD = 2;
+    private static final int CLAIMANT_IDS_FIELD = 3;
+    private static final int FIELDS = 4;
+
+    private final String nodeId;
+    private final long sequence;
+    private final List<UUID> ids;
+    private final List<UUID> claimantIds;
+
+    CacheInvalidationMessage(
+            final String nodeId,
+            final long sequence,
+            final Collection<UUID> ids,
+            final Collection<UUID> claimantIds
+    ) {
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.ids = Collections.unmodifiableList(new ArrayList<>(ids));
+        this.claimantIds = Collections.unmodifiableList(new ArrayList<>(claimantIds));
+    }
+
+    static CacheInvalidationMessage fromPayload(final String payload) {
+        final String[] fields = payload.split("\\" + FIELD_SEPARATOR, -1);
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload: " + payload);
+        }
+        return new CacheInvalidationMessage(
+                fields[NODE_FIELD],
+                Long.parseLong(fields[SEQUENCE_FIELD]),
+                toIds(fields[IDS_FIELD]),
+                toIds(fields[CLAIMANT_IDS_FIELD])
+        );
+    }
+
+    String toPayload() {
+        return nodeId + FIELD_SEPARATOR + sequence + FIELD_SEPARATOR + fromIds(ids) + FIELD_SEPARATOR
+                + fromIds(claimantIds);
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    List<UUID> getIds() {
+        return ids;
+    }
+
+    List<UUID> getClaimantIds() {
+        return claimantIds;
+    }
+
+    private static List<UUID> toIds(final String field) {
+        if (field.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(field.split(ID_SEPARATOR)).map(UUID::fromString).collect(Collectors.toList());
+    }
+
+    private static String fromIds(final List<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.joining(ID_SEPARATOR));
+    }
+}
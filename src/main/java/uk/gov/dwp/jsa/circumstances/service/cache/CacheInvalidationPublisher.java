@@ -0,0 +1,110 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts evictions with {@code NOTIFY} inside the writing transaction, so they are delivered on commit.
+ */
+@Component
+public class CacheInvalidationPublisher {
+
+    // claim and claimant ids together, keeping every payload well below the 8000 byte limit of a notification
+    private static final int MAX_IDS_PER_NOTIFICATION = 150;
+    private static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<Long> abandonedSequences = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public CacheInvalidationPublisher(
+            final JdbcTemplate jdbcTemplate,
+            final CircumstancesCacheProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = properties.isEnabled() && properties.getInvalidation().isEnabled();
+        this.channel = properties.getInvalidation().getChannel();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(final Collection<UUID> ids, final Collection<UUID> claimantIds) {
+        if (!enabled) {
+            return;
+        }
+        final List<Long> sequences = new ArrayList<>();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void beforeCommit(final boolean readOnly) {
+                    send(ids, claimantIds, sequences);
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status != STATUS_COMMITTED) {
+                        abandonedSequences.addAll(sequences);
+                    }
+                }
+            });
+        } else {
+            try {
+                send(ids, claimantIds, sequences);
+            } catch (RuntimeException e) {
+                abandonedSequences.addAll(sequences);
+                throw e;
+            }
+        }
+    }
+
+    // empty notifications standing in for those that were rolled back, so the other nodes don't wait for them
+    List<CacheInvalidationMessage> takeAbandoned() {
+        final List<CacheInvalidationMessage> messages = new ArrayList<>();
+        Long abandoned;
+        while ((abandoned = abandonedSequences.poll()) != null) {
+            messages.add(new CacheInvalidationMessage(nodeId, abandoned, Collections.emptyList(),
+                    Collections.emptyList()));
+        }
+        return messages;
+    }
+
+    void returnAbandoned(final List<CacheInvalidationMessage> messages) {
+        messages.forEach(message -> abandonedSequences.add(message.getSequence()));
+    }
+
+    private void send(final Collection<UUID> ids, final Collection<UUID> claimantIds, final List<Long> sequences) {
+        final List<UUID> remainingIds = new ArrayList<>(ids);
+        final List<UUID> remainingClaimantIds = new ArrayList<>(claimantIds);
+        do {
+            final List<UUID> idChunk = remainingIds.subList(0,
+                    Math.min(MAX_IDS_PER_NOTIFICATION, remainingIds.size()));
+            final List<UUID> claimantIdChunk = remainingClaimantIds.subList(0,
+                    Math.min(MAX_IDS_PER_NOTIFICATION - idChunk.size(), remainingClaimantIds.size()));
+            final long next = sequence.incrementAndGet();
+            sequences.add(next);
+            final CacheInvalidationMessage message =
+                    new CacheInvalidationMessage(nodeId, next, idChunk, claimantIdChunk);
+            jdbcTemplate.query(NOTIFY_SQL, rs -> { }, channel, message.toPayload());
+            idChunk.clear();
+            claimantIdChunk.clear();
+        } while (!remainingIds.isEmpty() || !remainingClaimantIds.isEmpty());
+    }
+}
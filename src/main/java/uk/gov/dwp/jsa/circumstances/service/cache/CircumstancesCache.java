@@ -0,0 +1,204 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches circumstances by claim id. A hit returns a shared instance, so callers must not modify it.
+ */
+@Component
+public class CircumstancesCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircumstancesCache.class);
+    private static final String CIRCUMSTANCES_CACHE_NAME = "circumstances";
+    private static final String CLAIMANTS_CACHE_NAME = "circumstances.claimants";
+
+    private final boolean enabled;
+    private final ObjectWriter writer;
+    private final CacheInvalidationPublisher publisher;
+    private final Cache<UUID, CachedCircumstances> circumstancesById;
+    private final Cache<UUID, UUID> idsByClaimantId;
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public CircumstancesCache(
+            final CircumstancesCacheProperties properties,
+            final ObjectMapper mapper,
+            final CacheInvalidationPublisher publisher,
+            final MeterRegistry meterRegistry
+    ) {
+        this.enabled = properties.isEnabled();
+        this.writer = mapper.writerFor(CircumstancesResponse.class);
+        this.publisher = publisher;
+        this.circumstancesById = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((UUID id, CachedCircumstances circumstances) -> circumstances.getWeight())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.idsByClaimantId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClaimants())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, circumstancesById, CIRCUMSTANCES_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByClaimantId, CLAIMANTS_CACHE_NAME);
+    }
+
+    public CircumstancesResponse getById(
+            final UUID id,
+            final Function<UUID, CircumstancesResponse> loader
+    ) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        final CircumstancesResponse cached = read(id);
+        if (cached != null) {
+            return cached;
+        }
+        return load(id, loader);
+    }
+
+    public CircumstancesResponse getByClaimantId(
+            final UUID claimantId,
+            final Function<UUID, CircumstancesResponse> loader
+    ) {
+        if (!enabled) {
+            return loader.apply(claimantId);
+        }
+        final UUID id = idsByClaimantId.getIfPresent(claimantId);
+        if (id != null) {
+            final CircumstancesResponse cached = read(id);
+            if (cached != null && claimantId.equals(cached.getClaimantId())) {
+                return cached;
+            }
+        }
+        return load(claimantId, loader);
+    }
+
+    public void evict(final UUID id, final UUID claimantId) {
+        final List<UUID> claimantIds = claimantId == null
+                ? Collections.emptyList()
+                : Collections.singletonList(claimantId);
+        evictAll(Collections.singletonList(id), claimantIds);
+    }
+
+    public void evictAll(final Collection<UUID> ids) {
+        evictAll(ids, Collections.emptyList());
+    }
+
+    public void evictAll(final Collection<UUID> ids, final Collection<UUID> claimantIds) {
+        if (!enabled) {
+            return;
+        }
+        publisher.publish(ids, claimantIds);
+        runAfterCommit(() -> evictLocally(ids, claimantIds));
+    }
+
+    public void evictLocally(final Collection<UUID> ids, final Collection<UUID> claimantIds) {
+        evictions.incrementAndGet();
+        circumstancesById.invalidateAll(ids);
+        idsByClaimantId.invalidateAll(claimantIds);
+    }
+
+    public void evictAllLocally() {
+        evictions.incrementAndGet();
+        circumstancesById.invalidateAll();
+        idsByClaimantId.invalidateAll();
+    }
+
+    private CircumstancesResponse read(final UUID id) {
+        final CachedCircumstances cached = circumstancesById.getIfPresent(id);
+        return cached == null ? null : cached.circumstances;
+    }
+
+    private CircumstancesResponse load(final UUID key, final Function<UUID, CircumstancesResponse> loader) {
+        final long evictionsBeforeLoad = evictions.get();
+        final CircumstancesResponse circumstances = loader.apply(key);
+        if (circumstances == null) {
+            return null;
+        }
+        final UUID id = circumstances.getId();
+        try {
+            circumstancesById.put(id, new CachedCircumstances(circumstances, serializedSize(circumstances)));
+            if (circumstances.getClaimantId() != null) {
+                idsByClaimantId.put(circumstances.getClaimantId(), id);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Error caching circumstances for id: {}", id, e);
+        }
+        // an eviction during the load may have replaced what was read
+        if (evictions.get() != evictionsBeforeLoad) {
+            circumstancesById.invalidate(id);
+        }
+        return circumstances;
+    }
+
+    private int serializedSize(final CircumstancesResponse circumstances) throws IOException {
+        final CountingOutputStream counter = new CountingOutputStream();
+        writer.writeValue(counter, circumstances);
+        return counter.count;
+    }
+
+    private static void runAfterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class CachedCircumstances {
+        private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+        private final CircumstancesResponse circumstances;
+        private final int weight;
+
+        private CachedCircumstances(final CircumstancesResponse circumstances, final int serializedSize) {
+            this.circumstances = circumstances;
+            this.weight = serializedSize + ENTRY_OVERHEAD_BYTES;
+        }
+
+        private int getWeight() {
+            return weight;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private int count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.cache")
+public class CircumstancesCacheProperties {
+
+    private static final long DEFAULT_MAXIMUM_SIZE_MEGABYTES = 64;
+    private static final long DEFAULT_EXPIRE_AFTER_WRITE_MINUTES = 10;
+    private static final long DEFAULT_MAXIMUM_CLAIMANTS = 100_000;
+
+    /**
+     * Whether rendered circumstances are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on the serialized size of all cached circumstances.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(DEFAULT_MAXIMUM_SIZE_MEGABYTES);
+
+    /**
+     * How long an entry may be served after it was cached.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(DEFAULT_EXPIRE_AFTER_WRITE_MINUTES);
+
+    /**
+     * Upper bound on the number of claimant id to claim id mappings.
+     */
+    private long maximumClaimants = DEFAULT_MAXIMUM_CLAIMANTS;
+
+    private final Invalidation invalidation = new Invalidation();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(final DataSize maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(final Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public long getMaximumClaimants() {
+        return maximumClaimants;
+    }
+
+    public void setMaximumClaimants(final long maximumClaimants) {
+        this.maximumClaimants = maximumClaimants;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public static class Invalidation {
+
+        private static final long DEFAULT_RECONNECT_DELAY_SECONDS = 5;
+        private static final long DEFAULT_POLL_TIMEOUT_SECONDS = 1;
+        private static final long DEFAULT_GAP_TIMEOUT_SECONDS = 2;
+        private static final long DEFAULT_NODE_EXPIRY_HOURS = 1;
+
+        /**
+         * Whether evictions are broadcast to, and received from, the other nodes.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Postgres notification channel the nodes publish and listen on.
+         */
+        private String channel = "circumstances_cache";
+
+        /**
+         * How long to wait before reconnecting after the listening connection was lost.
+         */
+        private Duration reconnectDelay = Duration.ofSeconds(DEFAULT_RECONNECT_DELAY_SECONDS);
+
+        /**
+         * How long the listener blocks waiting for notifications before checking whether it should stop.
+         */
+        private Duration pollTimeout = Duration.ofSeconds(DEFAULT_POLL_TIMEOUT_SECONDS);
+
+        /**
+         * How long a skipped sequence number may take to arrive before the whole cache is flushed.
+         */
+        private Duration gapTimeout = Duration.ofSeconds(DEFAULT_GAP_TIMEOUT_SECONDS);
+
+        /**
+         * How long a node may stay silent before its sequence numbers are forgotten.
+         */
+        private Duration nodeExpiry = Duration.ofHours(DEFAULT_NODE_EXPIRY_HOURS);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(final String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(final Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+
+        public Duration getPollTimeout() {
+            return pollTimeout;
+        }
+
+        public void setPollTimeout(final Duration pollTimeout) {
+            this.pollTimeout = pollTimeout;
+        }
+
+        public Duration getGapTimeout() {
+            return gapTimeout;
+        }
+
+        public void setGapTimeout(final Duration gapTimeout) {
+            this.gapTimeout = gapTimeout;
+        }
+
+        public Duration getNodeExpiry() {
+            return nodeExpiry;
+        }
+
+        public void setNodeExpiry(final Duration nodeExpiry) {
+            this.nodeExpiry = nodeExpiry;
+        }
+    }
+}
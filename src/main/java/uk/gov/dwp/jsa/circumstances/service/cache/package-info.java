@@ -0,0 +1,4 @@
+/**
+ * In-process caching of circumstances.
+ */
+package uk.gov.dwp.jsa.circumstances.service.cache;
@@ -0,0 +1,58 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidChangesRequestException;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * The timestamp and id of the last change read, handed to consumers as an opaque string.
+ */
+final class ChangeCursor {
+
+    static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1, 1, 1, 0, 0), new UUID(0, 0));
+
+    private static final String SEPARATOR = "/";
+
+    private final LocalDateTime timestamp;
+    private final UUID id;
+
+    private ChangeCursor(final LocalDateTime timestamp, final UUID id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    static ChangeCursor after(final CircumstancesChange change) {
+        return new ChangeCursor(change.getTimestamp(), change.getId());
+    }
+
+    static ChangeCursor decode(final String cursor) {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, -1);
+            if (parts.length != 2) {
+                throw new InvalidChangesRequestException();
+            }
+            return new ChangeCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidChangesRequestException();
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    UUID getId() {
+        return id;
+    }
+}
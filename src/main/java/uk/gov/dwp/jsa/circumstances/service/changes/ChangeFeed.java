@@ -0,0 +1,56 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidChangesRequestException;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChanges;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pages through the changes since a cursor. Changes younger than the settle delay are held back, as a
+ * transaction that commits late may still add changes before them.
+ */
+@Service
+public class ChangeFeed {
+
+    private final CircumstancesReader reader;
+    private final RecentWrites recentWrites;
+    private final ChangeFeedProperties properties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    public ChangeFeed(
+            final CircumstancesReader reader,
+            final RecentWrites recentWrites,
+            final ChangeFeedProperties properties,
+            final PlatformTransactionManager transactionManager
+    ) {
+        this.reader = reader;
+        this.recentWrites = recentWrites;
+        this.properties = properties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public CircumstancesChanges changesSince(final String since, final Integer limit) {
+        final int pageSize = limit == null ? properties.getDefaultLimit() : limit;
+        if (pageSize < 1 || pageSize > properties.getMaxLimit()) {
+            throw new InvalidChangesRequestException();
+        }
+        final ChangeCursor after = since == null ? ChangeCursor.START : ChangeCursor.decode(since);
+        final LocalDateTime before = LocalDateTime.now().minus(properties.getSettleDelay());
+        // a lagging replica would have consumers skip changes for good
+        final List<CircumstancesChange> changes = recentWrites.readFromPrimary(() ->
+                readOnlyTransactionTemplate.execute(status ->
+                        reader.findChanges(after.getTimestamp(), after.getId(), before, pageSize)));
+        final ChangeCursor next = changes.isEmpty() ? after : ChangeCursor.after(changes.get(changes.size() - 1));
+        return new CircumstancesChanges(changes, next.encode(), changes.size() == pageSize);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.changes")
+public class ChangeFeedProperties {
+
+    private static final long DEFAULT_SETTLE_DELAY_SECONDS = 10;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int DEFAULT_MAX_LIMIT = 1000;
+    private static final long DEFAULT_TOMBSTONE_RETENTION_DAYS = 30;
+    private static final long DEFAULT_TOMBSTONE_PURGE_INTERVAL_HOURS = 1;
+
+    /**
+     * How old a change must be before the feed returns it, longer than any write transaction and clock skew.
+     */
+    private Duration settleDelay = Duration.ofSeconds(DEFAULT_SETTLE_DELAY_SECONDS);
+
+    /**
+     * Changes per page when the request gives no limit.
+     */
+    private int defaultLimit = DEFAULT_LIMIT;
+
+    /**
+     * Largest limit a request may ask for.
+     */
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+
+    /**
+     * How long tombstones are kept, and so how long a consumer may go without reading the feed.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(DEFAULT_TOMBSTONE_RETENTION_DAYS);
+
+    /**
+     * How often each node deletes the tombstones older than the retention.
+     */
+    private Duration tombstonePurgeInterval = Duration.ofHours(DEFAULT_TOMBSTONE_PURGE_INTERVAL_HOURS);
+
+    public Duration getSettleDelay() {
+        return settleDelay;
+    }
+
+    public void setSettleDelay(final Duration settleDelay) {
+        this.settleDelay = settleDelay;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(final int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(final int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Duration getTombstoneRetention() {
+        return tombstoneRetention;
+    }
+
+    public void setTombstoneRetention(final Duration tombstoneRetention) {
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    public Duration getTombstonePurgeInterval() {
+        return tombstonePurgeInterval;
+    }
+
+    public void setTombstonePurgeInterval(final Duration tombstonePurgeInterval) {
+        this.tombstonePurgeInterval = tombstonePurgeInterval;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.dwp.jsa.circumstances.service.async.BackgroundConnections;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TombstonePurge {
+    static final int BATCH_SIZE = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TombstonePurge.class);
+
+    private final CircumstancesRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final BackgroundConnections connections;
+    private final ChangeFeedProperties properties;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public TombstonePurge(
+            final CircumstancesRepository repository,
+            final PlatformTransactionManager transactionManager,
+            final BackgroundConnections connections,
+            final ChangeFeedProperties properties
+    ) {
+        // deletes stamp tombstones with the local time
+        this(repository, transactionManager, connections, properties, Clock.systemDefaultZone());
+    }
+
+    TombstonePurge(
+            final CircumstancesRepository repository,
+            final PlatformTransactionManager transactionManager,
+            final BackgroundConnections connections,
+            final ChangeFeedProperties properties,
+            final Clock clock
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.connections = connections;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "circumstances-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long intervalMillis = properties.getTombstonePurgeInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    int purge() throws InterruptedException {
+        final LocalDateTime before = LocalDateTime.now(clock).minus(properties.getTombstoneRetention());
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = connections.call(() -> transactionTemplate.execute(status ->
+                    repository.deleteTombstonesBefore(before, BATCH_SIZE)));
+            purged += deleted;
+        } while (deleted == BATCH_SIZE);
+        return purged;
+    }
+
+    private void run() {
+        try {
+            LOGGER.debug("Purged {} tombstones", purge());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Purging tombstones failed", e);
+        }
+    }
+}
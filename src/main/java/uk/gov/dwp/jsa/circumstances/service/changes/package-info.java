@@ -0,0 +1,4 @@
+/**
+ * The feed of circumstances created, updated and deleted since a cursor.
+ */
+package uk.gov.dwp.jsa.circumstances.service.changes;
@@ -1,14 +1,40 @@
 package uk.gov.dwp.jsa.circumstances.service.config;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import com.vladmihalcea.hibernate.type.util.ObjectMapperSupplier;
 
+/**
+ * The one ObjectMapper shared by Spring MVC and hibernate-types. Afterburner is only registered when the
+ * {@value #AFTERBURNER_PROPERTY} system property is {@code true}.
+ */
 public class ServiceObjectMapperProvider implements ObjectMapperSupplier {
+    public static final String AFTERBURNER_PROPERTY = "circumstances.jackson.afterburner";
+
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
     @Override
     public ObjectMapper get() {
-        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        return Shared.MAPPER;
+    }
+
+    static ObjectMapper fromSystemProperties() {
+        return create(Boolean.getBoolean(AFTERBURNER_PROPERTY));
+    }
+
+    static ObjectMapper create(final boolean afterburner) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (Module module : ObjectMapper.findModules()) {
+            if (afterburner || !AFTERBURNER_MODULE.equals(module.getClass().getName())) {
+                objectMapper.registerModule(module);
+            }
+        }
         objectMapper.setDateFormat(new StdDateFormat());
         return objectMapper;
     }
+
+    private static final class Shared {
+        private static final ObjectMapper MAPPER = fromSystemProperties();
+    }
 }
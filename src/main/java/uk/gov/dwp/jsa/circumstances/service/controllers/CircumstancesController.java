@@ -3,6 +3,9 @@ package uk.gov.dwp.jsa.circumstances.service.controllers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,22 +16,40 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.dwp.jsa.adaptors.http.api.ApiResponse;
+import uk.gov.dwp.jsa.circumstances.service.changes.ChangeFeed;
 import uk.gov.dwp.jsa.circumstances.service.config.WithVersionUriComponentsBuilder;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChanges;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesMetadata;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.models.http.MigrationJobResponse;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesBatch;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesExportService;
 import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesService;
+import uk.gov.dwp.jsa.circumstances.service.services.EntityTags;
+import uk.gov.dwp.jsa.circumstances.service.services.ExportRange;
 import uk.gov.dwp.jsa.circumstances.service.services.ResponseBuilder;
 import uk.gov.dwp.jsa.security.roles.AnyRole;
 import uk.gov.dwp.jsa.security.roles.WC;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-import static java.util.Objects.nonNull;
 import static org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder.fromController;
 import static uk.gov.dwp.jsa.circumstances.service.config.WithVersionUriComponentsBuilder.VERSION_SPEL;
 
@@ -38,17 +59,29 @@ import static uk.gov.dwp.jsa.circumstances.service.config.WithVersionUriComponen
 public class CircumstancesController {
     private static final Logger LOGGER = LoggerFactory.getLogger(CircumstancesController.class);
     private static final int BATCH_LIMIT = 3000;
+    private static final String BATCH_SIZE_ERROR_MESSAGE = "Batch must contain between 1 and %d items";
+    private static final String BATCH_LIMIT_ERROR_MESSAGE = "Batch limit must be at least 1";
+    private static final String NDJSON = "application/x-ndjson";
 
     private final CircumstancesService circumstancesService;
+    private final CircumstancesExportService exportService;
+    private final ChangeFeed changeFeed;
     private final WithVersionUriComponentsBuilder uriBuilder;
+    private final int maxBatchSize;
 
     @Autowired
     public CircumstancesController(
             final CircumstancesService pCircumstancesService,
-            final WithVersionUriComponentsBuilder uriBuilder
+            final CircumstancesExportService exportService,
+            final ChangeFeed changeFeed,
+            final WithVersionUriComponentsBuilder uriBuilder,
+            @Value("${circumstances.batch.max-size}") final int maxBatchSize
     ) {
         this.circumstancesService = pCircumstancesService;
+        this.exportService = exportService;
+        this.changeFeed = changeFeed;
         this.uriBuilder = uriBuilder;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @AnyRole
@@ -58,12 +91,56 @@ public class CircumstancesController {
             final HttpServletRequest request
     ) {
         LOGGER.debug("Getting circumstances for id: {}", id);
-        return generateResponse(
+        final Optional<String> unmodifiedHash = findUnmodifiedHash(
+                request,
+                () -> circumstancesService.getMetadataById(id)
+        );
+        if (unmodifiedHash.isPresent()) {
+            return buildNotModifiedResponse(unmodifiedHash.get());
+        }
+        return generateCircumstancesResponse(
                 request.getRequestURI(),
                 circumstancesService.getCircumstancesById(id)
         );
     }
 
+    @AnyRole
+    @RequestMapping(value = "/claim/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> claimCircumstancesExist(@PathVariable final UUID id) {
+        LOGGER.debug("Checking circumstances exist for id: {}", id);
+        return buildExistenceResponse(circumstancesService.existsById(id));
+    }
+
+    @AnyRole
+    @GetMapping("/claim/{id}/metadata")
+    public ResponseEntity<ApiResponse<CircumstancesMetadata>> getClaimCircumstancesMetadataById(
+            @PathVariable final UUID id,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Getting circumstances metadata for id: {}", id);
+        return generateResponse(
+                request.getRequestURI(),
+                circumstancesService.getMetadataById(id)
+        );
+    }
+
+    @AnyRole
+    @PostMapping("/claims/batch-get")
+    public ResponseEntity<ApiResponse<CircumstancesBatch>> getClaimCircumstancesByIds(
+            @RequestBody final List<UUID> ids,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Getting circumstances for {} ids", ids.size());
+        if (!isValidBatchSize(ids)) {
+            return buildBatchSizeErrorResponse();
+        }
+        return buildSuccessfulResponse(
+                request.getRequestURI(),
+                circumstancesService.getCircumstancesByIds(ids),
+                HttpStatus.OK
+        );
+    }
+
     @AnyRole
     @GetMapping("/citizen/{claimantId}/claim")
     public ResponseEntity<ApiResponse<CircumstancesResponse>> getClaimCircumstancesByClaimantId(
@@ -71,12 +148,89 @@ public class CircumstancesController {
             final HttpServletRequest request
     ) {
         LOGGER.debug("Getting circumstances for claimantId: {}", claimantId);
-        return generateResponse(
+        final Optional<String> unmodifiedHash = findUnmodifiedHash(
+                request,
+                () -> circumstancesService.getMetadataByClaimantId(claimantId)
+        );
+        if (unmodifiedHash.isPresent()) {
+            return buildNotModifiedResponse(unmodifiedHash.get());
+        }
+        return generateCircumstancesResponse(
                 request.getRequestURI(),
                 circumstancesService.getCircumstancesByClaimantId(claimantId)
         );
     }
 
+    @AnyRole
+    @RequestMapping(value = "/citizen/{claimantId}/claim", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> claimantCircumstancesExist(@PathVariable final UUID claimantId) {
+        LOGGER.debug("Checking circumstances exist for claimantId: {}", claimantId);
+        return buildExistenceResponse(circumstancesService.existsByClaimantId(claimantId));
+    }
+
+    @AnyRole
+    @GetMapping("/citizen/{claimantId}/claim/metadata")
+    public ResponseEntity<ApiResponse<CircumstancesMetadata>> getClaimCircumstancesMetadataByClaimantId(
+            @PathVariable final UUID claimantId,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Getting circumstances metadata for claimantId: {}", claimantId);
+        return generateResponse(
+                request.getRequestURI(),
+                circumstancesService.getMetadataByClaimantId(claimantId)
+        );
+    }
+
+    @AnyRole
+    @PostMapping("/citizens/claims/batch-get")
+    public ResponseEntity<ApiResponse<CircumstancesBatch>> getClaimCircumstancesByClaimantIds(
+            @RequestBody final List<UUID> claimantIds,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Getting circumstances for {} claimantIds", claimantIds.size());
+        if (!isValidBatchSize(claimantIds)) {
+            return buildBatchSizeErrorResponse();
+        }
+        return buildSuccessfulResponse(
+                request.getRequestURI(),
+                circumstancesService.getCircumstancesByClaimantIds(claimantIds),
+                HttpStatus.OK
+        );
+    }
+
+    // streams rather than wrapping in an ApiResponse, so an export of any size is written as it is read
+    @PreAuthorize("hasAuthority('WC')")
+    @GetMapping("/claims/export")
+    public void exportClaimCircumstances(
+            @RequestParam(defaultValue = ExportRange.UPDATED) final String timestamp,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            final LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            final LocalDateTime to,
+            final HttpServletResponse response
+    ) throws IOException {
+        final ExportRange range = ExportRange.of(timestamp, from, to);
+        LOGGER.debug("Exporting circumstances {}", range);
+        response.setContentType(NDJSON);
+        final long exported = exportService.export(range, response.getOutputStream());
+        LOGGER.debug("Exported {} circumstances", exported);
+    }
+
+    @PreAuthorize("hasAuthority('WC')")
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<CircumstancesChanges>> getChanges(
+            @RequestParam(required = false) final String since,
+            @RequestParam(required = false) final Integer limit,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Getting up to {} changes since {}", limit, since);
+        return buildSuccessfulResponse(
+                request.getRequestURI(),
+                changeFeed.changesSince(since, limit),
+                HttpStatus.OK
+        );
+    }
+
     @PreAuthorize("!hasAnyAuthority('WC', 'SCA')")
     @PostMapping("/citizen/{claimantId}/claim")
     public ResponseEntity<ApiResponse<UUID>> createClaimCircumstances(
@@ -94,19 +248,39 @@ public class CircumstancesController {
         );
     }
 
+    @PreAuthorize("hasAuthority('WC')")
+    @PostMapping("/citizens/claims/batch-create")
+    public ResponseEntity<ApiResponse<List<CircumstancesCreateResult>>> createClaimCircumstancesBatch(
+            @RequestBody final List<CircumstancesRequest> circumstancesRequests,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Creating circumstances for {} claimants", circumstancesRequests.size());
+        if (!isValidBatchSize(circumstancesRequests)) {
+            return buildBatchSizeErrorResponse();
+        }
+        return buildSuccessfulResponse(
+                request.getRequestURI(),
+                circumstancesService.saveAll(circumstancesRequests),
+                HttpStatus.OK
+        );
+    }
+
     @PreAuthorize("hasAnyAuthority('CCM', 'WC', 'CCA')")
     @PatchMapping("/claim/{id}")
     public ResponseEntity<ApiResponse<UUID>> updateClaimCircumstances(
             @PathVariable("id") final UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
             @RequestBody @Validated final CircumstancesRequest circumstancesRequest
     ) {
         LOGGER.debug("Updating circumstances for id: {}", id);
-        circumstancesService.update(id, circumstancesRequest);
-        return buildSuccessfulResponse(
-                buildResourceUriFor(id),
-                id,
-                HttpStatus.OK
-        );
+        final String hash = circumstancesService.updateIfMatch(id, circumstancesRequest, ifMatch);
+        final ResponseBuilder<UUID> responseBuilder = new ResponseBuilder<UUID>()
+                .withStatus(HttpStatus.OK)
+                .withSuccessData(URI.create(buildResourceUriFor(id)), id);
+        if (hash != null) {
+            responseBuilder.withETag(EntityTags.fromHash(hash));
+        }
+        return responseBuilder.build();
     }
 
     @WC
@@ -115,8 +289,7 @@ public class CircumstancesController {
             @PathVariable final UUID id
     ) {
         LOGGER.debug("Deleting circumstances for id: {}", id);
-        if (nonNull(circumstancesService.getCircumstancesById(id))) {
-            circumstancesService.delete(id);
+        if (circumstancesService.delete(id)) {
             return generateResponse(
                     buildResourceUriFor(id),
                     id
@@ -128,14 +301,76 @@ public class CircumstancesController {
 
     }
 
+    @WC
+    @PostMapping("/claims/batch-delete")
+    public ResponseEntity<ApiResponse<Integer>> deleteByIds(
+            @RequestBody final List<UUID> ids,
+            final HttpServletRequest request
+    ) {
+        LOGGER.debug("Deleting circumstances for {} ids", ids.size());
+        if (!isValidBatchSize(ids)) {
+            return buildBatchSizeErrorResponse();
+        }
+        return buildSuccessfulResponse(
+                request.getRequestURI(),
+                circumstancesService.deleteByIds(ids),
+                HttpStatus.OK
+        );
+    }
+
     @PostMapping({"/existingdata/update/{batchLimit}", "/existingdata/update"})
-    public void updateExistingData(@PathVariable(required = false) final Integer batchLimit) {
+    public ResponseEntity<ApiResponse<MigrationJobResponse>> updateExistingData(
+            @PathVariable(required = false) final Integer batchLimit
+    ) {
         int actualBatchLimit = BATCH_LIMIT;
         if (batchLimit != null) {
+            if (batchLimit < 1) {
+                return buildBadRequestResponse(BATCH_LIMIT_ERROR_MESSAGE);
+            }
             actualBatchLimit = batchLimit;
         }
 
-        circumstancesService.saveEncrypted(actualBatchLimit);
+        final MigrationJobResponse job = circumstancesService.saveEncrypted(actualBatchLimit);
+        return buildSuccessfulResponse(buildMigrationJobUriFor(job.getId()), job, HttpStatus.ACCEPTED);
+    }
+
+    @PreAuthorize("hasAuthority('WC')")
+    @GetMapping("/existingdata/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<MigrationJobResponse>> getMigrationJob(@PathVariable final UUID jobId) {
+        return generateResponse(
+                buildMigrationJobUriFor(jobId),
+                circumstancesService.getMigrationJob(jobId)
+        );
+    }
+
+    @PreAuthorize("hasAuthority('WC')")
+    @PostMapping("/existingdata/jobs/{jobId}/pause")
+    public ResponseEntity<ApiResponse<MigrationJobResponse>> pauseMigrationJob(@PathVariable final UUID jobId) {
+        LOGGER.debug("Pausing migration job: {}", jobId);
+        return generateResponse(
+                buildMigrationJobUriFor(jobId),
+                circumstancesService.pauseMigrationJob(jobId)
+        );
+    }
+
+    @PreAuthorize("hasAuthority('WC')")
+    @PostMapping("/existingdata/jobs/{jobId}/resume")
+    public ResponseEntity<ApiResponse<MigrationJobResponse>> resumeMigrationJob(@PathVariable final UUID jobId) {
+        LOGGER.debug("Resuming migration job: {}", jobId);
+        return generateResponse(
+                buildMigrationJobUriFor(jobId),
+                circumstancesService.resumeMigrationJob(jobId)
+        );
+    }
+
+    @PreAuthorize("hasAuthority('WC')")
+    @PostMapping("/existingdata/jobs/{jobId}/cancel")
+    public ResponseEntity<ApiResponse<MigrationJobResponse>> cancelMigrationJob(@PathVariable final UUID jobId) {
+        LOGGER.debug("Cancelling migration job: {}", jobId);
+        return generateResponse(
+                buildMigrationJobUriFor(jobId),
+                circumstancesService.cancelMigrationJob(jobId)
+        );
     }
 
     private String buildResourceUriFor(final UUID resourceId) {
@@ -146,6 +381,14 @@ public class CircumstancesController {
                 .getPath();
     }
 
+    private String buildMigrationJobUriFor(final UUID jobId) {
+        return fromController(uriBuilder, getClass())
+                .path("/existingdata/jobs/{jobId}")
+                .buildAndExpand(jobId)
+                .toUri()
+                .getPath();
+    }
+
     private <T> ResponseEntity<ApiResponse<T>> generateResponse(final String path, final T objectToReturn) {
         if (objectToReturn == null) {
             return buildErrorResponse();
@@ -159,6 +402,42 @@ public class CircumstancesController {
         }
     }
 
+    private ResponseEntity<ApiResponse<CircumstancesResponse>> generateCircumstancesResponse(
+            final String path,
+            final CircumstancesResponse circumstances
+    ) {
+        if (circumstances == null) {
+            return buildErrorResponse();
+        }
+        final ResponseBuilder<CircumstancesResponse> responseBuilder = new ResponseBuilder<CircumstancesResponse>()
+                .withStatus(HttpStatus.OK)
+                .withSuccessData(URI.create(path), circumstances);
+        if (circumstances.getHash() != null) {
+            responseBuilder.withETag(EntityTags.fromHash(circumstances.getHash()));
+        }
+        return responseBuilder.build();
+    }
+
+    // reads the metadata only, so an unchanged payload is never decrypted or serialized
+    private Optional<String> findUnmodifiedHash(
+            final HttpServletRequest request,
+            final Supplier<CircumstancesMetadata> metadataLookup
+    ) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(metadataLookup.get())
+                .map(CircumstancesMetadata::getHash)
+                .filter(hash -> EntityTags.matches(ifNoneMatch, hash));
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> buildNotModifiedResponse(final String hash) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(EntityTags.fromHash(hash))
+                .build();
+    }
+
     private <T> ResponseEntity<ApiResponse<T>> buildSuccessfulResponse(
             final String path,
             final T objectToReturn,
@@ -170,6 +449,29 @@ public class CircumstancesController {
                 .build();
     }
 
+    private ResponseEntity<Void> buildExistenceResponse(final boolean exists) {
+        if (exists) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private boolean isValidBatchSize(final Collection<?> batch) {
+        return !batch.isEmpty() && batch.size() <= maxBatchSize;
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> buildBatchSizeErrorResponse() {
+        return buildBadRequestResponse(String.format(BATCH_SIZE_ERROR_MESSAGE, maxBatchSize));
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> buildBadRequestResponse(final String message) {
+        return new ResponseBuilder<T>()
+                .withStatus(HttpStatus.BAD_REQUEST)
+                .withApiError(HttpStatus.BAD_REQUEST.toString(), message)
+                .build();
+    }
+
     private <T> ResponseEntity<ApiResponse<T>> buildErrorResponse() {
         return new ResponseBuilder<T>()
                 .withStatus(HttpStatus.NOT_FOUND)
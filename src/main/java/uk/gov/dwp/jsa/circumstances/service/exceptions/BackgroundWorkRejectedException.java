@@ -0,0 +1,8 @@
+package uk.gov.dwp.jsa.circumstances.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class BackgroundWorkRejectedException extends RuntimeException {
+    static final String CODE = HttpStatus.SERVICE_UNAVAILABLE.toString();
+    static final String MESSAGE = "Too much background work in progress";
+}
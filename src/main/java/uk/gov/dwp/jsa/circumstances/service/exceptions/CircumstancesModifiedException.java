@@ -0,0 +1,8 @@
+package uk.gov.dwp.jsa.circumstances.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class CircumstancesModifiedException extends RuntimeException {
+    static final String CODE = HttpStatus.PRECONDITION_FAILED.toString();
+    static final String MESSAGE = "Circumstances have been modified";
+}
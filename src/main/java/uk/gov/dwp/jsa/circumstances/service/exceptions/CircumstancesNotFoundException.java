@@ -0,0 +1,8 @@
+package uk.gov.dwp.jsa.circumstances.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class CircumstancesNotFoundException extends RuntimeException {
+    static final String CODE = HttpStatus.NOT_FOUND.toString();
+    static final String MESSAGE = HttpStatus.NOT_FOUND.getReasonPhrase();
+}
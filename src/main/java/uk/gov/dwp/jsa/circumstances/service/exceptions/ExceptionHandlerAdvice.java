@@ -26,4 +26,74 @@ public class ExceptionHandlerAdvice {
                 ).build();
     }
 
+    @ExceptionHandler(CircumstancesNotFoundException.class)
+    public final @ResponseBody
+    ResponseEntity<ApiResponse<String>> handleCircumstancesNotFoundException(
+            final Exception ex,
+            final WebRequest request
+    ) {
+        return new ResponseBuilder<String>()
+                .withStatus(HttpStatus.NOT_FOUND)
+                .withApiError(
+                        CircumstancesNotFoundException.CODE,
+                        CircumstancesNotFoundException.MESSAGE
+                ).build();
+    }
+
+    @ExceptionHandler(CircumstancesModifiedException.class)
+    public final @ResponseBody
+    ResponseEntity<ApiResponse<String>> handleCircumstancesModifiedException(
+            final Exception ex,
+            final WebRequest request
+    ) {
+        return new ResponseBuilder<String>()
+                .withStatus(HttpStatus.PRECONDITION_FAILED)
+                .withApiError(
+                        CircumstancesModifiedException.CODE,
+                        CircumstancesModifiedException.MESSAGE
+                ).build();
+    }
+
+    @ExceptionHandler(BackgroundWorkRejectedException.class)
+    public final @ResponseBody
+    ResponseEntity<ApiResponse<String>> handleBackgroundWorkRejectedException(
+            final Exception ex,
+            final WebRequest request
+    ) {
+        return new ResponseBuilder<String>()
+                .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .withApiError(
+                        BackgroundWorkRejectedException.CODE,
+                        BackgroundWorkRejectedException.MESSAGE
+                ).build();
+    }
+
+    @ExceptionHandler(InvalidExportRangeException.class)
+    public final @ResponseBody
+    ResponseEntity<ApiResponse<String>> handleInvalidExportRangeException(
+            final Exception ex,
+            final WebRequest request
+    ) {
+        return new ResponseBuilder<String>()
+                .withStatus(HttpStatus.BAD_REQUEST)
+                .withApiError(
+                        InvalidExportRangeException.CODE,
+                        InvalidExportRangeException.MESSAGE
+                ).build();
+    }
+
+    @ExceptionHandler(InvalidChangesRequestException.class)
+    public final @ResponseBody
+    ResponseEntity<ApiResponse<String>> handleInvalidChangesRequestException(
+            final Exception ex,
+            final WebRequest request
+    ) {
+        return new ResponseBuilder<String>()
+                .withStatus(HttpStatus.BAD_REQUEST)
+                .withApiError(
+                        InvalidChangesRequestException.CODE,
+                        InvalidChangesRequestException.MESSAGE
+                ).build();
+    }
+
 }
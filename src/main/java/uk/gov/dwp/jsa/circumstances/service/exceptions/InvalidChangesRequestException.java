@@ -0,0 +1,8 @@
+package uk.gov.dwp.jsa.circumstances.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidChangesRequestException extends RuntimeException {
+    static final String CODE = HttpStatus.BAD_REQUEST.toString();
+    static final String MESSAGE = "Changes cursor must come from an earlier page and limit must be within range";
+}
@@ -0,0 +1,8 @@
+package uk.gov.dwp.jsa.circumstances.service.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidExportRangeException extends RuntimeException {
+    static final String CODE = HttpStatus.BAD_REQUEST.toString();
+    static final String MESSAGE = "Export timestamp must be created or updated, and from must be before to";
+}
@@ -0,0 +1,74 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the detailed timers and size summaries. Callers record into them only while {@link #isDetailed()}.
+ */
+@Component
+public class CircumstancesMetrics {
+
+    public static final String REPOSITORY = "circumstances.repository";
+    public static final String PAYLOAD_CRYPTO = "circumstances.payload.crypto";
+    public static final String PAYLOAD_SIZE = "circumstances.payload.size";
+    public static final String HASH = "circumstances.hash";
+    public static final String RESPONSE_SERIALIZATION = "circumstances.response.serialization";
+    public static final String RESPONSE_SIZE = "circumstances.response.size";
+    public static final String CONNECTION_HOLD = "circumstances.db.connection.hold";
+
+    private static volatile CircumstancesMetrics shared;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean detailed;
+    private final Duration[] slo;
+    private final double[] payloadSlo;
+
+    @Autowired
+    public CircumstancesMetrics(final MeterRegistry meterRegistry, final CircumstancesMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.detailed = properties.isDetailed();
+        this.slo = properties.getSlo().toArray(new Duration[0]);
+        this.payloadSlo = properties.getPayloadSlo().stream().mapToDouble(DataSize::toBytes).toArray();
+        shared = this;
+    }
+
+    // for what Hibernate creates, or what is wrapped before this bean exists; null until then
+    public static CircumstancesMetrics shared() {
+        return shared;
+    }
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    public Timer timer(final String name, final String description, final String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry);
+    }
+
+    public DistributionSummary sizeSummary(final String name, final String description, final String... tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(payloadSlo)
+                .register(meterRegistry);
+    }
+
+    public static void record(final Timer timer, final long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.metrics")
+public class CircumstancesMetricsProperties {
+
+    private static final long[] DEFAULT_SLO_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000};
+    private static final long[] DEFAULT_PAYLOAD_SLO_KILOBYTES = {1, 4, 16, 64, 256, 1024};
+
+    /**
+     * Whether the repository, payload encryption, hashing and response serialization timers are recorded.
+     */
+    private boolean detailed = true;
+
+    /**
+     * Service level objective buckets published with the detailed timers.
+     */
+    private List<Duration> slo = Arrays.stream(DEFAULT_SLO_MILLIS)
+            .mapToObj(Duration::ofMillis)
+            .collect(Collectors.toList());
+
+    /**
+     * Service level objective buckets published with the payload and response size summaries.
+     */
+    private List<DataSize> payloadSlo = Arrays.stream(DEFAULT_PAYLOAD_SLO_KILOBYTES)
+            .mapToObj(DataSize::ofKilobytes)
+            .collect(Collectors.toList());
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    public void setDetailed(final boolean detailed) {
+        this.detailed = detailed;
+    }
+
+    public List<Duration> getSlo() {
+        return slo;
+    }
+
+    public void setSlo(final List<Duration> slo) {
+        this.slo = slo;
+    }
+
+    public List<DataSize> getPayloadSlo() {
+        return payloadSlo;
+    }
+
+    public void setPayloadSlo(final List<DataSize> payloadSlo) {
+        this.payloadSlo = payloadSlo;
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Times how long each connection is held, tagged with the endpoint of the request that borrowed it.
+ */
+class ConnectionHoldTimingDataSource extends DelegatingDataSource {
+
+    static final String BACKGROUND = "BACKGROUND";
+    private static final String NONE = "NONE";
+
+    private final Supplier<CircumstancesMetrics> metrics;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    ConnectionHoldTimingDataSource(final DataSource dataSource, final Supplier<CircumstancesMetrics> metrics) {
+        super(dataSource);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(final Connection connection) {
+        final CircumstancesMetrics current = metrics.get();
+        if (current == null || !current.isDetailed()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new HoldTimer(connection, timer(current)));
+    }
+
+    private Timer timer(final CircumstancesMetrics current) {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return timer(current, NONE, BACKGROUND);
+        }
+        final Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return timer(current, ((ServletRequestAttributes) attributes).getRequest().getMethod(),
+                pattern == null ? NONE : pattern.toString());
+    }
+
+    private Timer timer(final CircumstancesMetrics current, final String method, final String uri) {
+        return timers.computeIfAbsent(method + ' ' + uri, key -> current.timer(
+                CircumstancesMetrics.CONNECTION_HOLD,
+                "Time a database connection is held before it goes back to the pool",
+                "method", method,
+                "uri", uri));
+    }
+
+    private static final class HoldTimer implements InvocationHandler {
+        private final Connection connection;
+        private final Timer timer;
+        private final long start = System.nanoTime();
+        private boolean closed;
+
+        private HoldTimer(final Connection connection, final Timer timer) {
+            this.connection = connection;
+            this.timer = timer;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && !closed) {
+                closed = true;
+                CircumstancesMetrics.record(timer, start);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the pooled data source, or the target of one delegating to it, so that connection hold times are recorded.
+ */
+@Component
+public class ConnectionHoldTimingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof ConnectionHoldTimingDataSource) {
+            return bean;
+        }
+        if (bean instanceof DelegatingDataSource) {
+            final DelegatingDataSource delegating = (DelegatingDataSource) bean;
+            final DataSource target = delegating.getTargetDataSource();
+            if (target != null && !(target instanceof ConnectionHoldTimingDataSource)) {
+                delegating.setTargetDataSource(timing(target));
+            }
+            return bean;
+        }
+        if (bean instanceof DataSource) {
+            return timing((DataSource) bean);
+        }
+        return bean;
+    }
+
+    private static DataSource timing(final DataSource dataSource) {
+        return new ConnectionHoldTimingDataSource(dataSource, CircumstancesMetrics::shared);
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final String NO_EXCEPTION = "None";
+
+    private final CircumstancesMetrics metrics;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RepositoryMetricsAspect(final CircumstancesMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Around("this(uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository)")
+    public Object time(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!metrics.isDetailed()) {
+            return joinPoint.proceed();
+        }
+        final long start = System.nanoTime();
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            CircumstancesMetrics.record(timer(joinPoint.getSignature().getName(), exception), start);
+        }
+    }
+
+    private Timer timer(final String method, final String exception) {
+        return timers.computeIfAbsent(method + '/' + exception, key -> metrics.timer(
+                CircumstancesMetrics.REPOSITORY,
+                "Time spent in circumstances repository calls",
+                "method", method,
+                "exception", exception));
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Replaces Spring Boot's JSON message converter to time writing each response body.
+ */
+@Component
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Timer serializationTimer;
+    private final DistributionSummary responseSize;
+
+    @Autowired
+    public TimedJsonHttpMessageConverter(final ObjectMapper mapper, final CircumstancesMetrics metrics) {
+        super(mapper);
+        if (metrics.isDetailed()) {
+            this.serializationTimer = metrics.timer(CircumstancesMetrics.RESPONSE_SERIALIZATION,
+                    "Time spent writing JSON response bodies");
+            this.responseSize = metrics.sizeSummary(CircumstancesMetrics.RESPONSE_SIZE,
+                    "Size of JSON response bodies");
+        } else {
+            this.serializationTimer = null;
+            this.responseSize = null;
+        }
+    }
+
+    @Override
+    protected void writeInternal(final Object object, final Type type, final HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (serializationTimer == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        final CountingOutputMessage countingMessage = new CountingOutputMessage(outputMessage);
+        final long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, countingMessage);
+        } finally {
+            CircumstancesMetrics.record(serializationTimer, start);
+            responseSize.record(countingMessage.count);
+        }
+    }
+
+    private static final class CountingOutputMessage implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+        private long count;
+
+        private CountingOutputMessage(final HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return new FilterOutputStream(delegate.getBody()) {
+                @Override
+                public void write(final int b) throws IOException {
+                    out.write(b);
+                    count++;
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    out.write(b, off, len);
+                    count += len;
+                }
+            };
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+}
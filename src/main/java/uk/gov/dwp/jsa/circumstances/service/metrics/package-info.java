@@ -0,0 +1,4 @@
+/**
+ * Detailed timers and distribution summaries of the request pipeline.
+ */
+package uk.gov.dwp.jsa.circumstances.service.metrics;
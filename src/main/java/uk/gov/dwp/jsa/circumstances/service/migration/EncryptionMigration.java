@@ -0,0 +1,174 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.dwp.jsa.circumstances.service.async.BackgroundConnections;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Encrypts the JSON still stored in plain text, a chunk per transaction claimed with {@code SKIP LOCKED}, so any
+ * number of workers on any number of nodes can run at once.
+ */
+@Component
+public class EncryptionMigration {
+    public static final String MIGRATION_NAME = "encryption";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EncryptionMigration.class);
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final CircumstancesRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final EncryptionMigrationProperties properties;
+    private final BackgroundConnections connections;
+    private final AsyncTaskExecutor asyncExecutor;
+
+    @Autowired
+    public EncryptionMigration(
+            final CircumstancesRepository repository,
+            final PlatformTransactionManager transactionManager,
+            final EncryptionMigrationProperties properties,
+            final BackgroundConnections connections,
+            final AsyncTaskExecutor asyncExecutor
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.connections = connections;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Encrypts up to the job's row limit in the background, until there is nothing left to encrypt or the job
+     * is cancelled.
+     */
+    @Async
+    public void start(final MigrationJob job) {
+        run(job);
+        LOGGER.info("Encryption migration {} {} after {} rows", job.getId(), job.getStatus(), job.getRowsProcessed());
+    }
+
+    /**
+     * Encrypts up to the job's row limit on this thread and on the shared executor, and waits for the workers
+     * to finish.
+     */
+    public void run(final MigrationJob job) {
+        final List<Helper> helpers = new ArrayList<>();
+        boolean failed = false;
+        try {
+            job.estimateRowsRemaining(connections.call(() ->
+                    repository.countUnencryptedCircumstances(job.getRowLimit())));
+            final AtomicInteger budget = new AtomicInteger(job.getRowLimit());
+            final RowThrottle throttle = new RowThrottle(properties.getMaxRowsPerSecond());
+            submitHelpers(job, budget, throttle, helpers);
+            migrate(job, budget, throttle);
+            for (Helper helper : helpers) {
+                // a helper still queued, possibly behind this very thread, would find nothing left to claim
+                if (!helper.started.compareAndSet(false, true)) {
+                    helper.result.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        } catch (ExecutionException e) {
+            LOGGER.error("Encryption migration failed after {} rows", job.getRowsProcessed(), e.getCause());
+            failed = true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Encryption migration failed after {} rows", job.getRowsProcessed(), e);
+            failed = true;
+        } finally {
+            helpers.forEach(helper -> helper.result.cancel(true));
+            job.finish(failed);
+        }
+    }
+
+    private void submitHelpers(
+            final MigrationJob job,
+            final AtomicInteger budget,
+            final RowThrottle throttle,
+            final List<Helper> helpers
+    ) {
+        for (int i = 1; i < properties.getWorkers(); i++) {
+            final AtomicBoolean started = new AtomicBoolean();
+            try {
+                helpers.add(new Helper(started, asyncExecutor.submit(() -> {
+                    if (started.compareAndSet(false, true)) {
+                        migrate(job, budget, throttle);
+                    }
+                    return null;
+                })));
+            } catch (TaskRejectedException e) {
+                LOGGER.warn("Encryption migration {} running with {} of {} workers, the executor is full",
+                        job.getId(), i, properties.getWorkers());
+                return;
+            }
+        }
+    }
+
+    private void migrate(
+            final MigrationJob job,
+            final AtomicInteger budget,
+            final RowThrottle throttle
+    ) throws InterruptedException {
+        UUID cursor = FIRST_ID;
+        while (job.awaitRunning()) {
+            final int chunkSize = claimBudget(budget);
+            if (chunkSize == 0) {
+                return;
+            }
+            throttle.acquire(chunkSize);
+            final List<UUID> ids = migrateChunk(cursor, chunkSize);
+            budget.addAndGet(chunkSize - ids.size());
+            job.recordProcessed(ids.size());
+            if (!ids.isEmpty()) {
+                cursor = ids.get(ids.size() - 1);
+            } else if (FIRST_ID.equals(cursor)) {
+                return;
+            } else {
+                // go round once more for rows that were locked by someone else when we passed them
+                cursor = FIRST_ID;
+            }
+        }
+    }
+
+    private int claimBudget(final AtomicInteger budget) {
+        final int available = budget.getAndUpdate(rows -> rows - Math.min(rows, properties.getChunkSize()));
+        return Math.min(available, properties.getChunkSize());
+    }
+
+    private List<UUID> migrateChunk(final UUID cursor, final int chunkSize) throws InterruptedException {
+        return connections.call(() -> transactionTemplate.execute(status -> {
+            final List<ClaimCircumstances> chunk = repository.findUnencryptedCircumstancesAfter(cursor, chunkSize);
+            chunk.forEach(ClaimCircumstances::encryptInPlace);
+            LOGGER.debug("Encrypting {} circumstances after id: {}", chunk.size(), cursor);
+            return chunk.stream().map(ClaimCircumstances::getId).collect(Collectors.toList());
+        }));
+    }
+
+    private static final class Helper {
+        private final AtomicBoolean started;
+        private final Future<?> result;
+
+        private Helper(final AtomicBoolean started, final Future<?> result) {
+            this.started = started;
+            this.result = result;
+        }
+    }
+}
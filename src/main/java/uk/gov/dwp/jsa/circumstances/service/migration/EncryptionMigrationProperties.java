@@ -0,0 +1,52 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.migration.encryption")
+public class EncryptionMigrationProperties {
+
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int DEFAULT_WORKERS = 2;
+
+    /**
+     * Rows claimed and encrypted per transaction.
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Workers encrypting chunks in parallel on this node, the job's own thread and the rest on the shared
+     * {@code @Async} executor as far as it has room.
+     */
+    private int workers = DEFAULT_WORKERS;
+
+    /**
+     * Upper bound on the rows encrypted per second by this node, 0 for no limit.
+     */
+    private int maxRowsPerSecond;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(final int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxRowsPerSecond() {
+        return maxRowsPerSecond;
+    }
+
+    public void setMaxRowsPerSecond(final int maxRowsPerSecond) {
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+}
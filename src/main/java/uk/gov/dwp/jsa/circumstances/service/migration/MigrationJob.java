@@ -0,0 +1,157 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One run of a background migration. Workers only check for a pause or a cancellation between chunks.
+ */
+public class MigrationJob {
+
+    public enum Status {
+        RUNNING, PAUSED, CANCELLED, COMPLETED, FAILED
+    }
+
+    private final UUID id;
+    private final String migration;
+    private final int rowLimit;
+    private final Counter rowsCounter;
+    private final Clock clock;
+    private final Instant startedAt;
+    private final AtomicInteger rowsProcessed = new AtomicInteger();
+    private final AtomicLong rowsRemaining = new AtomicLong();
+
+    private Status status = Status.RUNNING;
+    private Instant finishedAt;
+
+    MigrationJob(final String migration, final int rowLimit, final Counter rowsCounter, final Clock clock) {
+        this.id = UUID.randomUUID();
+        this.migration = migration;
+        this.rowLimit = rowLimit;
+        this.rowsCounter = rowsCounter;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getMigration() {
+        return migration;
+    }
+
+    public int getRowLimit() {
+        return rowLimit;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getRowsRemaining() {
+        return rowsRemaining.get();
+    }
+
+    // the average since the job started, pauses included
+    public double getRowsPerSecond() {
+        final Instant end = isFinished() ? getFinishedAt() : clock.instant();
+        final long elapsedMillis = Duration.between(startedAt, end).toMillis();
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return rowsProcessed.get() * (double) Duration.ofSeconds(1).toMillis() / elapsedMillis;
+    }
+
+    public Long getEstimatedSecondsRemaining() {
+        final double rowsPerSecond = getRowsPerSecond();
+        if (isFinished()) {
+            return 0L;
+        }
+        if (rowsPerSecond == 0) {
+            return null;
+        }
+        return (long) Math.ceil(rowsRemaining.get() / rowsPerSecond);
+    }
+
+    public synchronized boolean isFinished() {
+        return status == Status.CANCELLED || status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public synchronized boolean pause() {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        status = Status.PAUSED;
+        return true;
+    }
+
+    public synchronized boolean resume() {
+        if (status != Status.PAUSED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        notifyAll();
+        return true;
+    }
+
+    public synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        status = Status.CANCELLED;
+        finishedAt = clock.instant();
+        notifyAll();
+        return true;
+    }
+
+    // blocks while the job is paused, then tells the worker whether to carry on
+    synchronized boolean awaitRunning() throws InterruptedException {
+        while (status == Status.PAUSED) {
+            wait();
+        }
+        return status == Status.RUNNING;
+    }
+
+    void estimateRowsRemaining(final long rows) {
+        rowsRemaining.set(rows);
+    }
+
+    void recordProcessed(final int rows) {
+        rowsProcessed.addAndGet(rows);
+        rowsRemaining.updateAndGet(remaining -> Math.max(0, remaining - rows));
+        rowsCounter.increment(rows);
+    }
+
+    synchronized void finish(final boolean failed) {
+        if (isFinished()) {
+            return;
+        }
+        if (failed) {
+            status = Status.FAILED;
+        } else {
+            status = Status.COMPLETED;
+            rowsRemaining.set(0);
+        }
+        finishedAt = clock.instant();
+        notifyAll();
+    }
+}
@@ -0,0 +1,115 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the migration jobs started on this node and publishes their progress as metrics.
+ */
+@Component
+public class MigrationJobs {
+
+    // finished jobs kept around so their outcome can still be looked up
+    static final int MAX_FINISHED_JOBS = 20;
+
+    private static final String MIGRATION_TAG = "migration";
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<UUID, MigrationJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MigrationJobs(final MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemUTC());
+    }
+
+    MigrationJobs(final MeterRegistry meterRegistry, final Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    public MigrationJob create(final String migration, final int rowLimit) {
+        Gauge.builder("circumstances.migration.rows.remaining", this,
+                registry -> registry.countRowsRemaining(migration))
+                .description("Rows the running migration jobs still expect to migrate")
+                .tag(MIGRATION_TAG, migration)
+                .register(meterRegistry);
+        Gauge.builder("circumstances.migration.jobs.active", this,
+                registry -> registry.countActive(migration))
+                .description("Migration jobs running or paused")
+                .tag(MIGRATION_TAG, migration)
+                .register(meterRegistry);
+        final Counter rowsCounter = Counter.builder("circumstances.migration.rows")
+                .description("Rows migrated")
+                .tag(MIGRATION_TAG, migration)
+                .register(meterRegistry);
+        final MigrationJob job = new MigrationJob(migration, rowLimit, rowsCounter, clock);
+        removeOldFinishedJobs();
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    // a second job of the same migration would only walk the same rows again, so the active one is returned
+    public synchronized MigrationJob startUnlessActive(
+            final String migration,
+            final int rowLimit,
+            final Consumer<MigrationJob> start
+    ) {
+        final Optional<MigrationJob> active = jobs.values().stream()
+                .filter(job -> migration.equals(job.getMigration()) && !job.isFinished())
+                .findFirst();
+        if (active.isPresent()) {
+            return active.get();
+        }
+        final MigrationJob job = create(migration, rowLimit);
+        try {
+            start.accept(job);
+        } catch (RuntimeException e) {
+            job.finish(true);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<MigrationJob> find(final UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private double countRowsRemaining(final String migration) {
+        return jobs.values().stream()
+                .filter(job -> migration.equals(job.getMigration()) && !job.isFinished())
+                .mapToLong(MigrationJob::getRowsRemaining)
+                .sum();
+    }
+
+    private double countActive(final String migration) {
+        return jobs.values().stream()
+                .filter(job -> migration.equals(job.getMigration()) && !job.isFinished())
+                .count();
+    }
+
+    private void removeOldFinishedJobs() {
+        final long finished = jobs.values().stream().filter(MigrationJob::isFinished).count();
+        long toRemove = finished - MAX_FINISHED_JOBS + 1;
+        final Iterator<MigrationJob> oldestFirst = jobs.values().stream()
+                .filter(MigrationJob::isFinished)
+                .sorted(Comparator.comparing(MigrationJob::getFinishedAt))
+                .iterator();
+        while (toRemove > 0 && oldestFirst.hasNext()) {
+            jobs.remove(oldestFirst.next().getId());
+            toRemove--;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out work shared by several threads so that, together, they stay under a number of rows per second.
+ */
+final class RowThrottle {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long nanosPerRow;
+    private long nextFreeNanos = Long.MIN_VALUE;
+
+    RowThrottle(final int maxRowsPerSecond) {
+        this.nanosPerRow = maxRowsPerSecond > 0 ? NANOS_PER_SECOND / maxRowsPerSecond : 0;
+    }
+
+    void acquire(final int rows) throws InterruptedException {
+        final long waitNanos = reserve(rows, System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // returns how long the caller has to wait before it may process the rows
+    synchronized long reserve(final int rows, final long nowNanos) {
+        if (nanosPerRow == 0) {
+            return 0;
+        }
+        final long startNanos = Math.max(nowNanos, nextFreeNanos);
+        nextFreeNanos = startNanos + rows * nanosPerRow;
+        return startNanos - nowNanos;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Background data migrations.
+ */
+package uk.gov.dwp.jsa.circumstances.service.migration;
@@ -2,17 +2,19 @@ package uk.gov.dwp.jsa.circumstances.service.models.db;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenerationTime;
+import org.hibernate.annotations.GeneratorType;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
-import org.hibernate.annotations.UpdateTimestamp;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
-import uk.gov.dwp.jsa.security.encryption.SecuredJsonBinaryType;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 import java.util.Locale;
 import java.util.UUID;
@@ -20,33 +22,41 @@ import java.util.UUID;
 import static java.util.Locale.ENGLISH;
 
 @Entity
-@TypeDef(name = "jsonb", typeClass = SecuredJsonBinaryType.class)
+@TypeDef(name = "jsonb", typeClass = TimedSecuredJsonBinaryType.class)
 public class ClaimCircumstances {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID",
+            strategy = "uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstancesIdGenerator")
     @Column(name = "id", updatable = false, nullable = false, unique = true)
     private UUID id;
 
-    private String claimantId;
+    @Column(name = "claimant_uuid")
+    private UUID claimantId;
 
     @CreationTimestamp
     private LocalDateTime createdTimestamp;
 
-    @UpdateTimestamp
+    @GeneratorType(type = UpdatedTimestampGenerator.class, when = GenerationTime.ALWAYS)
     private LocalDateTime updatedTimestamp;
 
     @Type(type = "jsonb")
     @Column(columnDefinition = "jsonb")
     private CircumstancesRequest claimCircumstancesJson;
 
+    @Column(name = "hash_digest")
+    @Convert(converter = HexDigestConverter.class)
     private String hash;
+
     private String source;
     private String serviceVersion;
     private Locale locale;
     private boolean encryptedJson;
 
+    @Transient
+    private boolean encryptedInPlace;
+
     public ClaimCircumstances() {
     }
 
@@ -59,7 +69,7 @@ public class ClaimCircumstances {
 
     public ClaimCircumstances(
             final CircumstancesRequest claimCircumstancesJson,
-            final String claimantId,
+            final UUID claimantId,
             final String hash,
             final String source,
             final String version,
@@ -81,11 +91,11 @@ public class ClaimCircumstances {
         this.locale = locale;
     }
 
-    public String getClaimantId() {
+    public UUID getClaimantId() {
         return claimantId;
     }
 
-    public void setClaimantId(final String claimantId) {
+    public void setClaimantId(final UUID claimantId) {
         this.claimantId = claimantId;
     }
 
@@ -153,10 +163,22 @@ public class ClaimCircumstances {
         this.encryptedJson = encryptedJson;
     }
 
+    /**
+     * Has the stored JSON encrypted on the next flush without counting as an update of the circumstances.
+     */
+    public void encryptInPlace() {
+        this.encryptedJson = true;
+        this.encryptedInPlace = true;
+    }
+
+    boolean isEncryptedInPlace() {
+        return encryptedInPlace;
+    }
+
     public void update(final CircumstancesRequest circumstancesRequest, final UUID claimantId, final String hash,
                        final String source, final String version, final String locale) {
         this.claimCircumstancesJson = circumstancesRequest;
-        this.claimantId = claimantId.toString();
+        this.claimantId = claimantId;
         this.hash = hash;
         this.source = source;
         this.serviceVersion = version;
@@ -0,0 +1,69 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time ordered, version 7 UUIDs, so that inserts land on the right-most primary key index pages.
+ * Setting {@value #STRATEGY_SETTING} to {@code random} brings back random ids.
+ */
+public class ClaimCircumstancesIdGenerator implements IdentifierGenerator, Configurable {
+
+    public static final String STRATEGY_SETTING = "circumstances.id.strategy";
+    public static final String TIME_ORDERED = "time-ordered";
+    public static final String RANDOM = "random";
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int VERSION_SHIFT = 12;
+    private static final long VERSION = 7;
+    private static final long VERSION_BITS = VERSION << VERSION_SHIFT;
+    private static final int TIMESTAMP_SHIFT = 16;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final AtomicLong LAST_TICK = new AtomicLong();
+    private static final Random RANDOM_BITS = new SecureRandom();
+
+    private boolean timeOrdered = true;
+
+    @Override
+    public void configure(final Type type, final Properties params, final ServiceRegistry serviceRegistry) {
+        final String strategy = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(STRATEGY_SETTING, StandardConverters.STRING, TIME_ORDERED);
+        if (!TIME_ORDERED.equals(strategy) && !RANDOM.equals(strategy)) {
+            throw new MappingException("Unknown " + STRATEGY_SETTING + ": " + strategy);
+        }
+        this.timeOrdered = TIME_ORDERED.equals(strategy);
+    }
+
+    @Override
+    public Serializable generate(final SharedSessionContractImplementor session, final Object object) {
+        return timeOrdered ? timeOrderedUuid() : UUID.randomUUID();
+    }
+
+    public static UUID timeOrderedUuid() {
+        return timeOrderedUuid(System.currentTimeMillis(), RANDOM_BITS);
+    }
+
+    // the counter, borrowing from the timestamp when exhausted, keeps every id greater than the one before
+    static UUID timeOrderedUuid(final long epochMillis, final Random random) {
+        final long tick = LAST_TICK.updateAndGet(last -> Math.max(last + 1, epochMillis << COUNTER_BITS));
+        final long mostSignificantBits =
+                (tick >>> COUNTER_BITS) << TIMESTAMP_SHIFT | VERSION_BITS | tick & COUNTER_MASK;
+        final long leastSignificantBits = random.nextLong() & RANDOM_MASK | VARIANT;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
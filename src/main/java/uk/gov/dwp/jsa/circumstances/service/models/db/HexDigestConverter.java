@@ -0,0 +1,32 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a hex encoded digest as its raw bytes, half the size of the hex string, while the code keeps working
+ * with the hex form it compares and hands out in entity tags.
+ */
+@Converter
+public class HexDigestConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(final String digest) {
+        if (digest == null) {
+            return null;
+        }
+        try {
+            return Hex.decodeHex(digest.toCharArray());
+        } catch (DecoderException e) {
+            throw new IllegalArgumentException("Digest is not hex encoded: " + digest, e);
+        }
+    }
+
+    @Override
+    public String convertToEntityAttribute(final byte[] digest) {
+        return digest == null ? null : Hex.encodeHexString(digest);
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import uk.gov.dwp.jsa.security.encryption.SecuredJsonBinaryType;
+
+public class TimedSecuredJsonBinaryType extends SecuredJsonBinaryType {
+
+    public TimedSecuredJsonBinaryType() {
+        super();
+        setSqlTypeDescriptor(new TimedSqlTypeDescriptor(getSqlTypeDescriptor()));
+    }
+}
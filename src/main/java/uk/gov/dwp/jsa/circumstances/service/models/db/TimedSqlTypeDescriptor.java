@@ -0,0 +1,202 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+final class TimedSqlTypeDescriptor implements SqlTypeDescriptor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SqlTypeDescriptor delegate;
+    private transient volatile Meters meters;
+
+    TimedSqlTypeDescriptor(final SqlTypeDescriptor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int getSqlType() {
+        return delegate.getSqlType();
+    }
+
+    @Override
+    public boolean canBeRemapped() {
+        return delegate.canBeRemapped();
+    }
+
+    @Override
+    public <X> ValueBinder<X> getBinder(final JavaTypeDescriptor<X> javaTypeDescriptor) {
+        final ValueBinder<X> binder = delegate.getBinder(javaTypeDescriptor);
+        return new ValueBinder<X>() {
+            @Override
+            public void bind(final PreparedStatement st, final X value, final int index,
+                             final WrapperOptions options) throws SQLException {
+                final Meters current = meters();
+                if (current == null) {
+                    binder.bind(st, value, index, options);
+                    return;
+                }
+                final long start = System.nanoTime();
+                try {
+                    binder.bind(sizing(st, PreparedStatement.class, index, current.encryptedSize), value, index,
+                            options);
+                } finally {
+                    CircumstancesMetrics.record(current.encrypt, start);
+                }
+            }
+
+            @Override
+            public void bind(final CallableStatement st, final X value, final String name,
+                             final WrapperOptions options) throws SQLException {
+                final Meters current = meters();
+                if (current == null) {
+                    binder.bind(st, value, name, options);
+                    return;
+                }
+                final long start = System.nanoTime();
+                try {
+                    binder.bind(st, value, name, options);
+                } finally {
+                    CircumstancesMetrics.record(current.encrypt, start);
+                }
+            }
+        };
+    }
+
+    @Override
+    public <X> ValueExtractor<X> getExtractor(final JavaTypeDescriptor<X> javaTypeDescriptor) {
+        final ValueExtractor<X> extractor = delegate.getExtractor(javaTypeDescriptor);
+        return new ValueExtractor<X>() {
+            @Override
+            public X extract(final ResultSet rs, final String name, final WrapperOptions options)
+                    throws SQLException {
+                final Meters current = meters();
+                if (current == null) {
+                    return extractor.extract(rs, name, options);
+                }
+                final long start = System.nanoTime();
+                try {
+                    return extractor.extract(sizing(rs, ResultSet.class, name, current.encryptedSize), name,
+                            options);
+                } finally {
+                    CircumstancesMetrics.record(current.decrypt, start);
+                }
+            }
+
+            @Override
+            public X extract(final CallableStatement statement, final int index, final WrapperOptions options)
+                    throws SQLException {
+                final Meters current = meters();
+                if (current == null) {
+                    return extractor.extract(statement, index, options);
+                }
+                final long start = System.nanoTime();
+                try {
+                    return extractor.extract(statement, index, options);
+                } finally {
+                    CircumstancesMetrics.record(current.decrypt, start);
+                }
+            }
+
+            @Override
+            public X extract(final CallableStatement statement, final String[] paramNames,
+                             final WrapperOptions options) throws SQLException {
+                final Meters current = meters();
+                if (current == null) {
+                    return extractor.extract(statement, paramNames, options);
+                }
+                final long start = System.nanoTime();
+                try {
+                    return extractor.extract(statement, paramNames, options);
+                } finally {
+                    CircumstancesMetrics.record(current.decrypt, start);
+                }
+            }
+        };
+    }
+
+    private Meters meters() {
+        final CircumstancesMetrics metrics = CircumstancesMetrics.shared();
+        if (metrics == null || !metrics.isDetailed()) {
+            return null;
+        }
+        Meters current = meters;
+        if (current == null || current.metrics != metrics) {
+            current = new Meters(metrics);
+            meters = current;
+        }
+        return current;
+    }
+
+    // measures the value set at, or read from, the payload column on its way through
+    private static <T> T sizing(
+            final T target,
+            final Class<T> type,
+            final Object column,
+            final DistributionSummary size
+    ) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            final Object result = invoke(target, method, args);
+            if (args != null && args.length > 0 && column.equals(args[0])) {
+                if (method.getName().startsWith("set") && args.length > 1) {
+                    recordSize(size, args[1]);
+                } else if (method.getName().startsWith("get")) {
+                    recordSize(size, result);
+                }
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void recordSize(final DistributionSummary size, final Object value) {
+        if (value instanceof byte[]) {
+            size.record(((byte[]) value).length);
+        } else if (value != null) {
+            // strings and the driver's PGobject, whose string form is its JSON value
+            size.record(value.toString().length());
+        }
+    }
+
+    private static final class Meters {
+        private final CircumstancesMetrics metrics;
+        private final Timer encrypt;
+        private final Timer decrypt;
+        private final DistributionSummary encryptedSize;
+
+        private Meters(final CircumstancesMetrics metrics) {
+            this.metrics = metrics;
+            this.encrypt = metrics.timer(CircumstancesMetrics.PAYLOAD_CRYPTO,
+                    "Time spent mapping and encrypting or decrypting the circumstances payload",
+                    "operation", "encrypt");
+            this.decrypt = metrics.timer(CircumstancesMetrics.PAYLOAD_CRYPTO,
+                    "Time spent mapping and encrypting or decrypting the circumstances payload",
+                    "operation", "decrypt");
+            this.encryptedSize = metrics.sizeSummary(CircumstancesMetrics.PAYLOAD_SIZE,
+                    "Stored size of the circumstances payload");
+        }
+    }
+}
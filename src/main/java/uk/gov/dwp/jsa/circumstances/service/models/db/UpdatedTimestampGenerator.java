@@ -0,0 +1,21 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.hibernate.Session;
+import org.hibernate.tuple.ValueGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code @UpdateTimestamp}, except that encrypting the stored JSON in place keeps the timestamp.
+ */
+public class UpdatedTimestampGenerator implements ValueGenerator<LocalDateTime> {
+
+    @Override
+    public LocalDateTime generateValue(final Session session, final Object owner) {
+        final ClaimCircumstances circumstances = (ClaimCircumstances) owner;
+        if (circumstances.isEncryptedInPlace() && circumstances.getUpdatedTimestamp() != null) {
+            return circumstances.getUpdatedTimestamp();
+        }
+        return LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class CircumstancesChange {
+
+    private final UUID id;
+    private final UUID claimantId;
+    private final String hash;
+    private final LocalDateTime timestamp;
+    private final boolean deleted;
+
+    public CircumstancesChange(
+            final UUID id,
+            final UUID claimantId,
+            final String hash,
+            final LocalDateTime timestamp,
+            final boolean deleted
+    ) {
+        this.id = id;
+        this.claimantId = claimantId;
+        this.hash = hash;
+        this.timestamp = timestamp;
+        this.deleted = deleted;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getClaimantId() {
+        return claimantId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import java.util.List;
+
+public class CircumstancesChanges {
+
+    private final List<CircumstancesChange> changes;
+    private final String next;
+    private final boolean more;
+
+    public CircumstancesChanges(final List<CircumstancesChange> changes, final String next, final boolean more) {
+        this.changes = changes;
+        this.next = next;
+        this.more = more;
+    }
+
+    public List<CircumstancesChange> getChanges() {
+        return changes;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+}
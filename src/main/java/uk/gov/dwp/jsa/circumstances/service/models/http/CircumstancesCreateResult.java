@@ -0,0 +1,45 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import java.util.UUID;
+
+public final class CircumstancesCreateResult {
+
+    public enum Status {
+        CREATED, CONFLICT, INVALID
+    }
+
+    private final UUID claimantId;
+    private final UUID id;
+    private final Status status;
+
+    private CircumstancesCreateResult(final UUID claimantId, final UUID id, final Status status) {
+        this.claimantId = claimantId;
+        this.id = id;
+        this.status = status;
+    }
+
+    public static CircumstancesCreateResult created(final UUID claimantId, final UUID id) {
+        return new CircumstancesCreateResult(claimantId, id, Status.CREATED);
+    }
+
+    // the claimant already has circumstances, or appears more than once in the request
+    public static CircumstancesCreateResult conflict(final UUID claimantId) {
+        return new CircumstancesCreateResult(claimantId, null, Status.CONFLICT);
+    }
+
+    public static CircumstancesCreateResult invalid(final UUID claimantId) {
+        return new CircumstancesCreateResult(claimantId, null, Status.INVALID);
+    }
+
+    public UUID getClaimantId() {
+        return claimantId;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
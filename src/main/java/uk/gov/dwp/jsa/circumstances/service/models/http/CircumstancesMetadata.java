@@ -0,0 +1,64 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+public class CircumstancesMetadata {
+
+    private final UUID id;
+    private final UUID claimantId;
+    private final String hash;
+    private final LocalDateTime createdTimestamp;
+    private final LocalDateTime updatedTimestamp;
+    private final String source;
+    private final String serviceVersion;
+    private final Locale locale;
+
+    public CircumstancesMetadata(final ClaimCircumstances claimCircumstances) {
+        Objects.requireNonNull(claimCircumstances);
+        this.id = claimCircumstances.getId();
+        this.claimantId = claimCircumstances.getClaimantId();
+        this.hash = claimCircumstances.getHash();
+        this.createdTimestamp = claimCircumstances.getCreatedTimestamp();
+        this.updatedTimestamp = claimCircumstances.getUpdatedTimestamp();
+        this.source = claimCircumstances.getSource();
+        this.serviceVersion = claimCircumstances.getServiceVersion();
+        this.locale = claimCircumstances.getLocale();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getClaimantId() {
+        return claimantId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public LocalDateTime getCreatedTimestamp() {
+        return createdTimestamp;
+    }
+
+    public LocalDateTime getUpdatedTimestamp() {
+        return updatedTimestamp;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getServiceVersion() {
+        return serviceVersion;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+}
@@ -1,16 +1,42 @@
 package uk.gov.dwp.jsa.circumstances.service.models.http;
 
-import org.springframework.beans.BeanUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
 
 import java.util.Objects;
+import java.util.UUID;
 
 public class CircumstancesResponse extends CircumstancesRequest {
 
+    private static final PropertyCopier<CircumstancesRequest> COPIER =
+            PropertyCopier.forType(CircumstancesRequest.class);
+
+    @JsonIgnore
+    private String hash;
+
+    private CircumstancesResponse() {
+        // used by Jackson to read cached circumstances back
+    }
+
     public CircumstancesResponse(final ClaimCircumstances claimCircumstances) {
-        Objects.requireNonNull(claimCircumstances);
-        Objects.requireNonNull(claimCircumstances.getClaimCircumstancesJson());
-        BeanUtils.copyProperties(claimCircumstances.getClaimCircumstancesJson(), this);
-        this.setId(claimCircumstances.getId());
+        this(Objects.requireNonNull(claimCircumstances).getId(), claimCircumstances.getClaimCircumstancesJson(),
+                claimCircumstances.getHash());
+    }
+
+    public CircumstancesResponse(final UUID id, final CircumstancesRequest circumstances, final String hash) {
+        Objects.requireNonNull(circumstances);
+        COPIER.copy(circumstances, this);
+        this.setId(id);
+        this.hash = hash;
+    }
+
+    @JsonIgnore
+    public String getHash() {
+        return hash;
+    }
+
+    @JsonIgnore
+    public void setHash(final String hash) {
+        this.hash = hash;
     }
 }
@@ -0,0 +1,75 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import uk.gov.dwp.jsa.circumstances.service.migration.MigrationJob;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+public class MigrationJobResponse {
+
+    private final UUID id;
+    private final String migration;
+    private final MigrationJob.Status status;
+    private final int rowLimit;
+    private final int rowsProcessed;
+    private final long rowsRemaining;
+    private final double rowsPerSecond;
+    private final Long estimatedSecondsRemaining;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+
+    public MigrationJobResponse(final MigrationJob job) {
+        Objects.requireNonNull(job);
+        this.id = job.getId();
+        this.migration = job.getMigration();
+        this.status = job.getStatus();
+        this.rowLimit = job.getRowLimit();
+        this.rowsProcessed = job.getRowsProcessed();
+        this.rowsRemaining = job.getRowsRemaining();
+        this.rowsPerSecond = job.getRowsPerSecond();
+        this.estimatedSecondsRemaining = job.getEstimatedSecondsRemaining();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getMigration() {
+        return migration;
+    }
+
+    public MigrationJob.Status getStatus() {
+        return status;
+    }
+
+    public int getRowLimit() {
+        return rowLimit;
+    }
+
+    public int getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public long getRowsRemaining() {
+        return rowsRemaining;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public Long getEstimatedSecondsRemaining() {
+        return estimatedSecondsRemaining;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
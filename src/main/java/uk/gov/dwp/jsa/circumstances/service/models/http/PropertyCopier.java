@@ -0,0 +1,101 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * {@code BeanUtils.copyProperties} with every getter and setter bound to a lambda once per type.
+ */
+public final class PropertyCopier<T> {
+
+    private final Property[] properties;
+
+    private PropertyCopier(final List<Property> properties) {
+        this.properties = properties.toArray(new Property[0]);
+    }
+
+    public static <T> PropertyCopier<T> forType(final Class<T> type) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final List<Property> properties = new ArrayList<>();
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                    properties.add(new Property(descriptor.getName(),
+                            getter(lookup, descriptor.getReadMethod()),
+                            setter(lookup, descriptor.getWriteMethod())));
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind the properties of " + type.getName(), e);
+        }
+        return new PropertyCopier<>(properties);
+    }
+
+    public void copy(final T source, final T target) {
+        for (Property property : properties) {
+            property.setter.accept(target, property.getter.apply(source));
+        }
+    }
+
+    public List<String> getPropertyNames() {
+        final List<String> names = new ArrayList<>(properties.length);
+        for (Property property : properties) {
+            names.add(property.name);
+        }
+        return names;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(
+            final MethodHandles.Lookup lookup,
+            final Method method
+    ) throws Throwable {
+        final MethodHandle handle = lookup.unreflect(method);
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(
+            final MethodHandles.Lookup lookup,
+            final Method method
+    ) throws Throwable {
+        final MethodHandle handle = lookup.unreflect(method);
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                handle.type().wrap().changeReturnType(void.class));
+        return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static final class Property {
+        private final String name;
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        private Property(
+                final String name,
+                final Function<Object, Object> getter,
+                final BiConsumer<Object, Object> setter
+        ) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
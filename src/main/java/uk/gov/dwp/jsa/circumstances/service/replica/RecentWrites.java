@@ -0,0 +1,113 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends reads of claims and claimants written within the read your writes window to the primary.
+ */
+@Component
+public class RecentWrites {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Ticker ticker;
+    private final Cache<UUID, Boolean> written;
+    private final AtomicLong everythingUntil;
+    private final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    @Autowired
+    public RecentWrites(final ReplicaProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    RecentWrites(final ReplicaProperties properties, final Ticker ticker) {
+        if (properties.isEnabled() && properties.getReadYourWritesWindow().compareTo(properties.getMaxLag()) <= 0) {
+            throw new IllegalArgumentException("The read your writes window, " + properties.getReadYourWritesWindow()
+                    + ", must be longer than the maximum replica lag, " + properties.getMaxLag());
+        }
+        this.enabled = properties.isEnabled();
+        this.windowNanos = properties.getReadYourWritesWindow().toNanos();
+        this.ticker = ticker;
+        this.everythingUntil = new AtomicLong(ticker.read());
+        this.written = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumRecentWrites())
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .removalListener((UUID key, Boolean value, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        recordEverything();
+                    }
+                })
+                .build();
+    }
+
+    public void record(final UUID id, final UUID claimantId) {
+        recordAll(Collections.singletonList(id),
+                claimantId == null ? Collections.emptyList() : Collections.singletonList(claimantId));
+    }
+
+    public void recordAll(final Collection<UUID> ids, final Collection<UUID> claimantIds) {
+        if (!enabled) {
+            return;
+        }
+        ids.forEach(id -> written.put(id, Boolean.TRUE));
+        claimantIds.forEach(claimantId -> written.put(claimantId, Boolean.TRUE));
+    }
+
+    // for when writes may have been missed or forgotten early
+    public void recordEverything() {
+        final long until = ticker.read() + windowNanos;
+        everythingUntil.accumulateAndGet(until, Math::max);
+    }
+
+    public <T> T read(final UUID key, final Supplier<T> read) {
+        return read(Collections.singletonList(key), read);
+    }
+
+    public <T> T read(final Collection<UUID> keys, final Supplier<T> read) {
+        if (!enabled || isPrimaryRequired() || !isAnyWritten(keys)) {
+            return read.get();
+        }
+        return readFromPrimary(read);
+    }
+
+    public <T> T readFromPrimary(final Supplier<T> read) {
+        if (!enabled || isPrimaryRequired()) {
+            return read.get();
+        }
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            primaryRequired.remove();
+        }
+    }
+
+    public boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(primaryRequired.get());
+    }
+
+    private boolean isAnyWritten(final Collection<UUID> keys) {
+        if (ticker.read() - everythingUntil.get() < 0) {
+            return true;
+        }
+        for (UUID key : keys) {
+            if (written.getIfPresent(key) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+
+/**
+ * Replaces the single data source with a primary and a replica pool behind one routing data source. The pools
+ * are not beans, as Boot would initialise them against the routing data source built from them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "circumstances.db.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig primaryPoolConfig(final DataSourceProperties dataSourceProperties) {
+        final HikariConfig primary = new HikariConfig();
+        primary.setPoolName("primary");
+        primary.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        primary.setJdbcUrl(dataSourceProperties.determineUrl());
+        primary.setUsername(dataSourceProperties.determineUsername());
+        primary.setPassword(dataSourceProperties.determinePassword());
+        return primary;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "circumstances.db.replica.hikari")
+    public HikariConfig replicaPoolConfig(
+            final DataSourceProperties dataSourceProperties,
+            final ReplicaProperties properties
+    ) {
+        final HikariConfig replica = new HikariConfig();
+        replica.setPoolName("replica");
+        replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getLogin());
+        replica.setPassword(properties.getPassword());
+        replica.setReadOnly(true);
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    // a connection of its own, so that a busy replica pool does not take the replica out of use
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(final ReplicaProperties properties) {
+        return new ReplicaLagMonitor(
+                new DriverManagerDataSource(properties.getUrl(), properties.getLogin(), properties.getPassword()),
+                properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryPoolConfig") final HikariConfig primaryPoolConfig,
+            @Qualifier("replicaPoolConfig") final HikariConfig replicaPoolConfig,
+            final ReplicaLagMonitor replicaLagMonitor,
+            final RecentWrites recentWrites,
+            final ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        meterRegistry.ifAvailable(registry -> {
+            primaryPoolConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicaPoolConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        });
+        final HikariDataSource primary = new HikariDataSource(primaryPoolConfig);
+        final HikariDataSource replica = new HikariDataSource(replicaPoolConfig);
+        return new PoolsClosingDataSource(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, recentWrites), primary, replica);
+    }
+
+    // borrows a connection only for the first statement, by when the transaction can be routed
+    private static final class PoolsClosingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+        private final HikariDataSource primary;
+        private final HikariDataSource replica;
+
+        private PoolsClosingDataSource(
+                final DataSource routing,
+                final HikariDataSource primary,
+                final HikariDataSource replica
+        ) {
+            super(routing);
+            this.primary = primary;
+            this.replica = replica;
+        }
+
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replica's lag at a fixed interval. Until the first measurement succeeds, reads go to the primary.
+ */
+public class ReplicaLagMonitor implements MeterBinder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // seconds since the last replayed transaction, or 0 when everything received has been replayed
+    static final String LAG_SQL = "select case"
+            + " when not pg_is_in_recovery() then 0"
+            + " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final double MILLIS_PER_SECOND = 1000d;
+
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final long intervalMillis;
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+    private ScheduledExecutorService scheduler;
+    private Connection connection;
+
+    public ReplicaLagMonitor(final DataSource replica, final ReplicaProperties properties) {
+        this.replica = replica;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.intervalMillis = properties.getLagCheckInterval().toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "circumstances-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        closeConnection();
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    synchronized void check() {
+        boolean nowAvailable;
+        try {
+            if (connection == null) {
+                connection = replica.getConnection();
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                lagSeconds = resultSet.getDouble(1);
+            }
+            nowAvailable = lagSeconds * MILLIS_PER_SECOND <= maxLagMillis;
+            if (!nowAvailable && available) {
+                LOGGER.warn("Replica is {} seconds behind, reading from the primary", lagSeconds);
+            }
+        } catch (SQLException | RuntimeException e) {
+            closeConnection();
+            lagSeconds = Double.NaN;
+            nowAvailable = false;
+            if (available) {
+                LOGGER.warn("Cannot reach the replica, reading from the primary", e);
+            }
+        }
+        if (nowAvailable && !available) {
+            LOGGER.info("Reading from the replica, {} seconds behind", lagSeconds);
+        }
+        available = nowAvailable;
+    }
+
+    private synchronized void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.debug("Cannot close the replica lag connection", e);
+        }
+        connection = null;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("circumstances.db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag of the replica at the last check, NaN when it could not be reached")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("circumstances.db.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("Whether read-only transactions are sent to the replica")
+                .register(registry);
+    }
+}
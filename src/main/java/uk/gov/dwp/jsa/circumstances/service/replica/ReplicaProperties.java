@@ -0,0 +1,111 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "circumstances.db.replica")
+public class ReplicaProperties {
+
+    private static final long DEFAULT_MAX_LAG_SECONDS = 5;
+    private static final long DEFAULT_LAG_CHECK_INTERVAL_SECONDS = 2;
+    private static final long DEFAULT_READ_YOUR_WRITES_WINDOW_SECONDS = 30;
+    private static final long DEFAULT_MAXIMUM_RECENT_WRITES = 100_000;
+
+    /**
+     * Whether read-only transactions are sent to the replica.
+     */
+    private boolean enabled;
+
+    private String url;
+
+    private String login;
+
+    private String password;
+
+    /**
+     * Replication lag above which reads go back to the primary until the replica catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(DEFAULT_MAX_LAG_SECONDS);
+
+    /**
+     * How often the replication lag is measured.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(DEFAULT_LAG_CHECK_INTERVAL_SECONDS);
+
+    /**
+     * How long reads of circumstances written recently keep going to the primary, longer than the maximum lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(DEFAULT_READ_YOUR_WRITES_WINDOW_SECONDS);
+
+    /**
+     * Recently written claim and claimant ids remembered before every read goes to the primary.
+     */
+    private long maximumRecentWrites = DEFAULT_MAXIMUM_RECENT_WRITES;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(final String url) {
+        this.url = url;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(final String login) {
+        this.login = login;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(final String password) {
+        this.password = password;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(final Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    public void setLagCheckInterval(final Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(final Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    public long getMaximumRecentWrites() {
+        return maximumRecentWrites;
+    }
+
+    public void setMaximumRecentWrites(final long maximumRecentWrites) {
+        this.maximumRecentWrites = maximumRecentWrites;
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replica unless it is behind or the read is of a recent write.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final RecentWrites recentWrites;
+
+    ReplicaRoutingDataSource(
+            final DataSource primary,
+            final DataSource replica,
+            final ReplicaLagMonitor lagMonitor,
+            final RecentWrites recentWrites
+    ) {
+        this.lagMonitor = lagMonitor;
+        this.recentWrites = recentWrites;
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !recentWrites.isPrimaryRequired()
+                && lagMonitor.isAvailable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
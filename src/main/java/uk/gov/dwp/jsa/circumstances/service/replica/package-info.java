@@ -0,0 +1,4 @@
+/**
+ * Routing of read-only transactions to a streaming replica of the circumstances database.
+ */
+package uk.gov.dwp.jsa.circumstances.service.replica;
@@ -0,0 +1,169 @@
+package uk.gov.dwp.jsa.circumstances.service.repositories;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.AbstractStandardBasicType;
+import org.hibernate.type.Type;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.jooq.Condition;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record3;
+import org.jooq.Record5;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Repository;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.db.HexDigestConverter;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.jooq.impl.DSL.castNull;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Reads circumstances with jOOQ straight into responses, decrypting the payload with the entity's Hibernate type.
+ * Reads have to run in a transaction, whose connection jOOQ shares with Hibernate.
+ */
+@Repository
+public class CircumstancesReader {
+
+    private static final Field<UUID> ID = field(name("id"), UUID.class);
+    private static final Field<UUID> CLAIMANT_ID = field(name("claimant_uuid"), UUID.class);
+    private static final Field<byte[]> HASH = field(name("hash_digest"), byte[].class);
+    private static final Field<Object> PAYLOAD = field(name("claim_circumstances_json"));
+    private static final Field<LocalDateTime> UPDATED = field(name("updated_timestamp"), LocalDateTime.class);
+    private static final Field<LocalDateTime> DELETED = field(name("deleted_timestamp"), LocalDateTime.class);
+    private static final String CHANGES = "changes";
+    private static final Field<UUID> CHANGE_ID = field(name(CHANGES, "id"), UUID.class);
+    private static final Field<LocalDateTime> CHANGE_TIMESTAMP =
+            field(name(CHANGES, "timestamp"), LocalDateTime.class);
+    private static final Field<Boolean> CHANGE_DELETED = field(name(CHANGES, "deleted"), Boolean.class);
+    private static final String PAYLOAD_PROPERTY = "claimCircumstancesJson";
+
+    private final DSLContext dsl;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Table<Record> claimCircumstances;
+    private final Table<Record> tombstones;
+    private final HexDigestConverter digestConverter = new HexDigestConverter();
+    private volatile ValueExtractor<CircumstancesRequest> payloadExtractor;
+
+    @Autowired
+    public CircumstancesReader(
+            final DSLContext dsl,
+            final EntityManagerFactory entityManagerFactory,
+            @Value("${circumstances.db.schema}") final String schema
+    ) {
+        this.dsl = dsl;
+        this.entityManagerFactory = entityManagerFactory;
+        this.claimCircumstances = table(name(schema, "claim_circumstances"));
+        this.tombstones = table(name(schema, "claim_circumstances_tombstone"));
+    }
+
+    public Optional<CircumstancesResponse> findById(final UUID id) {
+        return find(ID.eq(id));
+    }
+
+    public Optional<CircumstancesResponse> findByClaimantId(final UUID claimantId) {
+        return find(CLAIMANT_ID.eq(claimantId));
+    }
+
+    // each table is read from its (timestamp, id) index and only as far as the page can need
+    public List<CircumstancesChange> findChanges(
+            final LocalDateTime afterTimestamp,
+            final UUID afterId,
+            final LocalDateTime before,
+            final int limit
+    ) {
+        final Select<Record5<UUID, UUID, byte[], LocalDateTime, Boolean>> updated =
+                dsl.select(ID, CLAIMANT_ID, HASH, UPDATED.as(CHANGE_TIMESTAMP.getName()),
+                        inline(false).as(CHANGE_DELETED.getName()))
+                        .from(claimCircumstances)
+                        .where(row(UPDATED, ID).gt(afterTimestamp, afterId))
+                        .and(UPDATED.lt(before))
+                        .orderBy(UPDATED, ID)
+                        .limit(limit);
+        final Select<Record5<UUID, UUID, byte[], LocalDateTime, Boolean>> deleted =
+                dsl.select(ID, CLAIMANT_ID, castNull(HASH), DELETED, inline(true))
+                        .from(tombstones)
+                        .where(row(DELETED, ID).gt(afterTimestamp, afterId))
+                        .and(DELETED.lt(before))
+                        .orderBy(DELETED, ID)
+                        .limit(limit);
+        return dsl.selectFrom(updated.unionAll(deleted).asTable(CHANGES))
+                .orderBy(CHANGE_TIMESTAMP, CHANGE_ID)
+                .limit(limit)
+                .fetch(record -> new CircumstancesChange(
+                        record.get(CHANGE_ID),
+                        record.get(CLAIMANT_ID),
+                        digestConverter.convertToEntityAttribute(record.get(HASH)),
+                        record.get(CHANGE_TIMESTAMP),
+                        record.get(CHANGE_DELETED)));
+    }
+
+    private Optional<CircumstancesResponse> find(final Condition condition) {
+        try (Cursor<Record3<UUID, byte[], Object>> cursor = dsl.select(ID, HASH, PAYLOAD)
+                .from(claimCircumstances)
+                .where(condition)
+                .fetchLazy()) {
+            final ResultSet resultSet = cursor.resultSet();
+            if (!resultSet.next()) {
+                return Optional.empty();
+            }
+            return Optional.of(new CircumstancesResponse(
+                    resultSet.getObject(ID.getName(), UUID.class),
+                    payloadExtractor().extract(resultSet, PAYLOAD.getName(), session()),
+                    digestConverter.convertToEntityAttribute(resultSet.getBytes(HASH.getName()))));
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Reading circumstances", null, e);
+        }
+    }
+
+    private SharedSessionContractImplementor session() {
+        final EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(
+                entityManagerFactory);
+        if (entityManager == null) {
+            throw new IllegalStateException("Circumstances can only be read in a transaction");
+        }
+        return entityManager.unwrap(SharedSessionContractImplementor.class);
+    }
+
+    // looked up on first use, as the entity manager factory may still be bootstrapping when this is created
+    @SuppressWarnings("unchecked")
+    private ValueExtractor<CircumstancesRequest> payloadExtractor() {
+        ValueExtractor<CircumstancesRequest> extractor = payloadExtractor;
+        if (extractor == null) {
+            final Type type = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel()
+                    .entityPersister(ClaimCircumstances.class)
+                    .getPropertyType(PAYLOAD_PROPERTY);
+            if (!(type instanceof AbstractStandardBasicType)) {
+                throw new IllegalStateException("Unexpected type of the circumstances payload: " + type);
+            }
+            final AbstractStandardBasicType<CircumstancesRequest> payloadType =
+                    (AbstractStandardBasicType<CircumstancesRequest>) type;
+            extractor = payloadType.getSqlTypeDescriptor().getExtractor(payloadType.getJavaTypeDescriptor());
+            payloadExtractor = extractor;
+        }
+        return extractor;
+    }
+}
@@ -1,40 +1,105 @@
 package uk.gov.dwp.jsa.circumstances.service.repositories;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface CircumstancesRepository extends CrudRepository<ClaimCircumstances, UUID> {
+public interface CircumstancesRepository extends JpaRepository<ClaimCircumstances, UUID> {
+
+    Optional<ClaimCircumstances> findByClaimantId(UUID claimantId);
 
-    Optional<ClaimCircumstances> findByClaimantId(String claimantId);
+    // takes a Postgres array literal, {id,id}, whose order the rows come in
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(value = "select * from {h-schema}claim_circumstances "
+            + "where claimant_uuid = any(cast(?1 as uuid[])) "
+            + "order by array_position(cast(?1 as uuid[]), claimant_uuid)",
+            nativeQuery = true)
+    Stream<ClaimCircumstances> streamByClaimantIdInOrderOf(String claimantIds);
 
-    @Query(value = "select id, claimant_id, null claim_circumstances_json, created_timestamp, updated_timestamp, "
-            + "hash, source, service_version, locale, encrypted_json "
-            + "from circumstances_schema.claim_circumstances where claimant_id = ?1",
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(value = "select * from {h-schema}claim_circumstances "
+            + "where id = any(cast(?1 as uuid[])) order by array_position(cast(?1 as uuid[]), id)",
             nativeQuery = true)
-    Optional<ClaimCircumstances> findByClaimantIdWithoutJson(String claimantId);
+    Stream<ClaimCircumstances> streamByIdInOrderOf(String ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c from ClaimCircumstances c")
+    Stream<ClaimCircumstances> streamAllForExport();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c from ClaimCircumstances c where c.createdTimestamp >= ?1 and c.createdTimestamp < ?2")
+    Stream<ClaimCircumstances> streamCreatedBetweenForExport(LocalDateTime from, LocalDateTime to);
 
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select c from ClaimCircumstances c where c.updatedTimestamp >= ?1 and c.updatedTimestamp < ?2")
+    Stream<ClaimCircumstances> streamUpdatedBetweenForExport(LocalDateTime from, LocalDateTime to);
 
-    @Query(value = "select id, claimant_id, null claim_circumstances_json, created_timestamp, updated_timestamp, "
-            + "hash, source, service_version, locale, encrypted_json "
-            + "from circumstances_schema.claim_circumstances where id = ?1",
+    @Query(value = "select id, claimant_uuid, null claim_circumstances_json, created_timestamp, updated_timestamp, "
+            + "hash_digest, source, service_version, locale, encrypted_json "
+            + "from {h-schema}claim_circumstances where claimant_uuid = ?1",
+            nativeQuery = true)
+    Optional<ClaimCircumstances> findByClaimantIdWithoutJson(UUID claimantId);
+
+
+    @Query(value = "select id, claimant_uuid, null claim_circumstances_json, created_timestamp, updated_timestamp, "
+            + "hash_digest, source, service_version, locale, encrypted_json "
+            + "from {h-schema}claim_circumstances where id = ?1",
             nativeQuery = true)
     Optional<ClaimCircumstances> findByIdWithoutJson(UUID id);
 
-    @Query(value = "select claimant_id from circumstances_schema.claim_circumstances "
-            + "where encrypted_json = false limit ?1",
+    @Query(value = "select id, claimant_uuid, null claim_circumstances_json, created_timestamp, updated_timestamp, "
+            + "hash_digest, source, service_version, locale, encrypted_json "
+            + "from {h-schema}claim_circumstances where id = ?1 for update",
+            nativeQuery = true)
+    Optional<ClaimCircumstances> findByIdWithoutJsonForUpdate(UUID id);
+
+    @Query(value = "select exists(select 1 from {h-schema}claim_circumstances where claimant_uuid = ?1)",
+            nativeQuery = true)
+    boolean existsByClaimantIdWithoutJson(UUID claimantId);
+
+    @Query("select c.claimantId from ClaimCircumstances c where c.claimantId in ?1")
+    List<UUID> findExistingClaimantIds(Collection<UUID> claimantIds);
+
+    // leaves a tombstone for each deleted row, for the change feed, and returns the claimant id of each as text,
+    // which a native query can map
+    @Query(value = "with deleted as (delete from {h-schema}claim_circumstances where id in ?1 "
+            + "returning id, claimant_uuid), tombstones as ("
+            + "insert into {h-schema}claim_circumstances_tombstone (id, claimant_uuid, deleted_timestamp) "
+            + "select id, claimant_uuid, ?2 from deleted) "
+            + "select cast(claimant_uuid as varchar) from deleted",
+            nativeQuery = true)
+    List<String> deleteByIdInLeavingTombstones(Collection<UUID> ids, LocalDateTime deletedTimestamp);
+
+    @Modifying
+    @Query(value = "delete from {h-schema}claim_circumstances_tombstone where id in ("
+            + "select id from {h-schema}claim_circumstances_tombstone "
+            + "where deleted_timestamp < ?1 limit ?2)",
+            nativeQuery = true)
+    int deleteTombstonesBefore(LocalDateTime before, int limit);
+
+    @Query(value = "select count(*) from (select 1 from {h-schema}claim_circumstances "
+            + "where encrypted_json = false limit ?1) unencrypted",
             nativeQuery = true)
-    List<String> findUnencryptedClaimantIds(int limit);
+    long countUnencryptedCircumstances(int limit);
 
-    @Query(value = "select * from circumstances_schema.claim_circumstances "
-            + "where encrypted_json = false order by created_timestamp asc limit ?1",
+    @Query(value = "select * from {h-schema}claim_circumstances "
+            + "where encrypted_json = false and id > ?1 order by id limit ?2 for update skip locked",
             nativeQuery = true)
-    List<ClaimCircumstances> findUnencryptedCircumstances(int limit);
+    List<ClaimCircumstances> findUnencryptedCircumstancesAfter(UUID id, int limit);
 
 }
@@ -0,0 +1,56 @@
+package uk.gov.dwp.jsa.circumstances.service.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stops the service from starting against a schema that {@code db/changelog/changelog.sql} has not been applied
+ * to. Liquibase does not run on start up, and without this the first query reading a missing column would fail.
+ */
+@Component
+public class SchemaCheck {
+
+    static final List<String> REQUIRED_COLUMNS = Arrays.asList(
+            "claim_circumstances.claimant_uuid",
+            "claim_circumstances.hash_digest",
+            "claim_circumstances_tombstone.id",
+            "claim_circumstances_tombstone.claimant_uuid",
+            "claim_circumstances_tombstone.deleted_timestamp"
+    );
+
+    private static final String COLUMNS_SQL = "select table_name || '.' || column_name from information_schema.columns"
+            + " where table_schema = ? and table_name in ('claim_circumstances', 'claim_circumstances_tombstone')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    @Autowired
+    public SchemaCheck(
+            final JdbcTemplate jdbcTemplate,
+            @Value("${circumstances.db.schema}") final String schema
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    @PostConstruct
+    public void verify() {
+        final Set<String> columns = new HashSet<>(jdbcTemplate.queryForList(COLUMNS_SQL, String.class, schema));
+        final List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.contains(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("The " + schema + " schema has no " + String.join(", ", missing)
+                    + "; apply db/changelog/changelog.sql before starting this version of the service");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Circumstances keyed by claim or claimant id, read before the JSON object is written so that no connection is
+ * held while the client reads it. The rows must come in the order of the keys; keys without a row are written as null.
+ */
+public final class CircumstancesBatch extends JsonSerializable.Base {
+
+    private final List<UUID> keys;
+    private final Function<ClaimCircumstances, UUID> keyOf;
+    private final List<ClaimCircumstances> rows;
+
+    public CircumstancesBatch(
+            final List<UUID> keys,
+            final Function<ClaimCircumstances, UUID> keyOf,
+            final List<ClaimCircumstances> rows
+    ) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.keyOf = keyOf;
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    public List<UUID> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public void serialize(final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        final Iterator<UUID> pending = keys.iterator();
+        for (final ClaimCircumstances row : rows) {
+            final UUID key = keyOf.apply(row);
+            UUID next;
+            do {
+                if (!pending.hasNext()) {
+                    throw new IllegalStateException("Circumstances read out of the requested order: " + key);
+                }
+                next = pending.next();
+                generator.writeFieldName(next.toString());
+                if (!next.equals(key)) {
+                    generator.writeNull();
+                }
+            } while (!next.equals(key));
+            provider.defaultSerializeValue(new CircumstancesResponse(row), generator);
+        }
+        while (pending.hasNext()) {
+            generator.writeFieldName(pending.next().toString());
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(
+            final JsonGenerator generator,
+            final SerializerProvider provider,
+            final TypeSerializer typeSerializer
+    ) throws IOException {
+        serialize(generator, provider);
+    }
+}
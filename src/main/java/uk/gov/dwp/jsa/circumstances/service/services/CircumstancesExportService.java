@@ -0,0 +1,87 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes circumstances as newline delimited JSON, each row detached once written so memory stays flat.
+ */
+@Service
+public class CircumstancesExportService {
+
+    private final CircumstancesRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    public CircumstancesExportService(
+            final CircumstancesRepository repository,
+            final EntityManager entityManager,
+            final ObjectMapper mapper,
+            final PlatformTransactionManager transactionManager
+    ) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.writer = mapper.writerFor(CircumstancesResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public long export(final ExportRange range, final OutputStream out) throws IOException {
+        try {
+            return readOnlyTransactionTemplate.execute(status -> {
+                try (Stream<ClaimCircumstances> circumstances = stream(range)) {
+                    return write(circumstances, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Stream<ClaimCircumstances> stream(final ExportRange range) {
+        if (range.isAll()) {
+            return repository.streamAllForExport();
+        }
+        return range.isByCreated()
+                ? repository.streamCreatedBetweenForExport(range.getFrom(), range.getTo())
+                : repository.streamUpdatedBetweenForExport(range.getFrom(), range.getTo());
+    }
+
+    private long write(final Stream<ClaimCircumstances> circumstances, final OutputStream out) throws IOException {
+        final JsonGenerator generator = writer.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long written = 0;
+        final Iterator<ClaimCircumstances> rows = circumstances.iterator();
+        while (rows.hasNext()) {
+            final ClaimCircumstances row = rows.next();
+            writer.writeValue(generator, new CircumstancesResponse(row));
+            generator.writeRaw('\n');
+            entityManager.detach(row);
+            written++;
+        }
+        generator.flush();
+        return written;
+    }
+}
@@ -1,52 +1,194 @@
 package uk.gov.dwp.jsa.circumstances.service.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.codec.digest.DigestUtils;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import uk.gov.dwp.jsa.adaptors.enums.UserType;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCache;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.BackgroundWorkRejectedException;
 import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesAlreadyExistsException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesModifiedException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesNotFoundException;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetrics;
+import uk.gov.dwp.jsa.circumstances.service.migration.EncryptionMigration;
+import uk.gov.dwp.jsa.circumstances.service.migration.MigrationJobs;
 import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesMetadata;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.models.http.MigrationJobResponse;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
 import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CircumstancesService {
     private static final Logger LOGGER = LoggerFactory.getLogger(CircumstancesService.class);
 
     private final CircumstancesRepository repository;
-    private final ObjectMapper mapper;
+    private final CircumstancesReader reader;
+    private final ContentHasher contentHasher;
+    private final CircumstancesCache cache;
+    private final RecentWrites recentWrites;
+    private final EncryptionMigration encryptionMigration;
+    private final MigrationJobs migrationJobs;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Validator validator;
+    private final int insertChunkSize;
+    private final boolean jooqReads;
+    private final Timer hashTimer;
 
     @Autowired
-    public CircumstancesService(final CircumstancesRepository repository, final ObjectMapper mapper) {
+    public CircumstancesService(
+            final CircumstancesRepository repository,
+            final CircumstancesReader reader,
+            final ObjectMapper mapper,
+            final CircumstancesCache cache,
+            final RecentWrites recentWrites,
+            final EncryptionMigration encryptionMigration,
+            final MigrationJobs migrationJobs,
+            final PlatformTransactionManager transactionManager,
+            final EntityManager entityManager,
+            final Validator validator,
+            final CircumstancesMetrics metrics,
+            @Value("${circumstances.batch.insert-chunk-size}") final int insertChunkSize,
+            @Value("${circumstances.jooq-reads}") final boolean jooqReads
+    ) {
         this.repository = repository;
-        this.mapper = mapper;
+        this.reader = reader;
+        this.jooqReads = jooqReads;
+        this.contentHasher = new ContentHasher(mapper);
+        this.cache = cache;
+        this.recentWrites = recentWrites;
+        this.encryptionMigration = encryptionMigration;
+        this.migrationJobs = migrationJobs;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.validator = validator;
+        this.insertChunkSize = insertChunkSize;
+        this.hashTimer = metrics.isDetailed()
+                ? metrics.timer(CircumstancesMetrics.HASH, "Time spent hashing circumstances content")
+                : null;
     }
 
+    // only a cache miss opens a transaction, and so takes a connection
     public CircumstancesResponse getCircumstancesById(final UUID id) {
-        return repository.findById(id).map(CircumstancesResponse::new).orElse(null);
+        return cache.getById(id, key -> recentWrites.read(key, () -> readOnlyTransactionTemplate.execute(status ->
+                jooqReads
+                        ? reader.findById(key).orElse(null)
+                        : repository.findById(key).map(CircumstancesResponse::new).orElse(null))));
+    }
+
+    public CircumstancesBatch getCircumstancesByIds(final Collection<UUID> ids) {
+        final List<UUID> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+        return new CircumstancesBatch(keys, ClaimCircumstances::getId,
+                readBatch(keys, () -> repository.streamByIdInOrderOf(toArrayLiteral(keys))));
     }
 
     public CircumstancesResponse getCircumstancesByClaimantId(final UUID claimantId) {
-        return repository.findByClaimantId(claimantId.toString()).map(CircumstancesResponse::new).orElse(null);
+        return cache.getByClaimantId(claimantId, key -> recentWrites.read(key, () ->
+                readOnlyTransactionTemplate.execute(status -> jooqReads
+                        ? reader.findByClaimantId(key).orElse(null)
+                        : repository.findByClaimantId(key).map(CircumstancesResponse::new).orElse(null))));
+    }
+
+    public CircumstancesBatch getCircumstancesByClaimantIds(final Collection<UUID> claimantIds) {
+        final List<UUID> keys = new ArrayList<>(new LinkedHashSet<>(claimantIds));
+        return new CircumstancesBatch(keys, ClaimCircumstances::getClaimantId,
+                readBatch(keys, () -> repository.streamByClaimantIdInOrderOf(toArrayLiteral(keys))));
     }
 
+    // the batch size is capped by the controller, so the rows are read into a list and detached, and the
+    // transaction ends before the response is written
+    private List<ClaimCircumstances> readBatch(
+            final Collection<UUID> keys,
+            final Supplier<Stream<ClaimCircumstances>> query
+    ) {
+        return recentWrites.read(keys, () -> readOnlyTransactionTemplate.execute(status -> {
+            final List<ClaimCircumstances> read = new ArrayList<>(keys.size());
+            try (Stream<ClaimCircumstances> rows = query.get()) {
+                rows.forEach(row -> {
+                    entityManager.detach(row);
+                    read.add(row);
+                });
+            }
+            return read;
+        }));
+    }
+
+    private static String toArrayLiteral(final Collection<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean existsById(final UUID id) {
+        return recentWrites.read(id, () -> repository.existsById(id));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean existsByClaimantId(final UUID claimantId) {
+        return recentWrites.read(claimantId, () -> repository.existsByClaimantIdWithoutJson(claimantId));
+    }
+
+    // read-only, so the entity loaded without its JSON can never be flushed back
+    @Transactional(readOnly = true)
+    public CircumstancesMetadata getMetadataById(final UUID id) {
+        return recentWrites.read(id, () ->
+                repository.findByIdWithoutJson(id).map(CircumstancesMetadata::new).orElse(null));
+    }
+
+    @Transactional(readOnly = true)
+    public CircumstancesMetadata getMetadataByClaimantId(final UUID claimantId) {
+        return recentWrites.read(claimantId, () -> repository.findByClaimantIdWithoutJson(claimantId)
+                .map(CircumstancesMetadata::new)
+                .orElse(null));
+    }
+
+    // hashes the content before repository.save opens its transaction
     public UUID save(final CircumstancesRequest circumstancesRequest) {
         final ClaimCircumstances claimCircumstances = createCircumstancesEntityWith(circumstancesRequest);
 
         try {
-            return repository.save(claimCircumstances).getId();
+            final UUID id = repository.save(claimCircumstances).getId();
+            recentWrites.record(id, circumstancesRequest.getClaimantId());
+            cache.evict(id, circumstancesRequest.getClaimantId());
+            return id;
         } catch (DataIntegrityViolationException e) {
             LOGGER.error("Error saving circumstances for claimantId: {}",
                         circumstancesRequest.getClaimantId(), e);
@@ -55,57 +197,214 @@ public class CircumstancesService {
 
     }
 
-    @Async
-    public void saveEncrypted(final int batchLimit) {
-        List<ClaimCircumstances> claimCircumstancesList = repository.findUnencryptedCircumstances(batchLimit);
-        claimCircumstancesList.stream().forEach(c -> c.setEncryptedJson(true));
-        repository.saveAll(claimCircumstancesList);
+    // one bad item never fails the others, it is reported in its result instead
+    public List<CircumstancesCreateResult> saveAll(final List<CircumstancesRequest> circumstancesRequests) {
+        final CircumstancesCreateResult[] results = new CircumstancesCreateResult[circumstancesRequests.size()];
+        final Set<UUID> claimantIds = new HashSet<>();
+        final List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < circumstancesRequests.size(); i++) {
+            final CircumstancesRequest circumstancesRequest = circumstancesRequests.get(i);
+            final UUID claimantId = circumstancesRequest.getClaimantId();
+            if (claimantId == null || !validator.validate(circumstancesRequest).isEmpty()) {
+                results[i] = CircumstancesCreateResult.invalid(claimantId);
+            } else if (!claimantIds.add(claimantId)) {
+                results[i] = CircumstancesCreateResult.conflict(claimantId);
+            } else {
+                pending.add(i);
+            }
+        }
+        for (int from = 0; from < pending.size(); from += insertChunkSize) {
+            final List<Integer> chunk = pending.subList(from, Math.min(from + insertChunkSize, pending.size()));
+            final Map<UUID, CircumstancesCreateResult> chunkResults = createChunk(chunk.stream()
+                    .map(circumstancesRequests::get)
+                    .collect(Collectors.toList()));
+            chunk.forEach(i -> results[i] = chunkResults.get(circumstancesRequests.get(i).getClaimantId()));
+        }
+        return Arrays.asList(results);
     }
 
-    public UUID update(final UUID uuid, final CircumstancesRequest circumstancesRequest) {
-        ClaimCircumstances claimCircumstances =
-                repository.findById(uuid).orElseThrow(CircumstancesAlreadyExistsException::new);
-        claimCircumstances.update(circumstancesRequest,
-                                  circumstancesRequest.getClaimantId(),
-                                  DigestUtils.sha256Hex(createJsonFor(circumstancesRequest)),
-                                  UserType.CITIZEN.toString(),
-                                  circumstancesRequest.getServiceVersion(),
-                                  circumstancesRequest.getLocale());
+    private Map<UUID, CircumstancesCreateResult> createChunk(final List<CircumstancesRequest> chunk) {
+        try {
+            return transactionTemplate.execute(status -> insertChunk(chunk));
+        } catch (DataIntegrityViolationException e) {
+            // someone else created one of these claimants since we checked, find out which one by one
+            LOGGER.warn("Error saving a chunk of {} circumstances, saving them one at a time", chunk.size());
+            final Map<UUID, CircumstancesCreateResult> results = new HashMap<>();
+            chunk.forEach(circumstancesRequest ->
+                    results.put(circumstancesRequest.getClaimantId(), createOne(circumstancesRequest)));
+            return results;
+        }
+    }
+
+    private Map<UUID, CircumstancesCreateResult> insertChunk(final List<CircumstancesRequest> chunk) {
+        final Set<UUID> existingClaimantIds = new HashSet<>(repository.findExistingClaimantIds(chunk.stream()
+                .map(CircumstancesRequest::getClaimantId)
+                .collect(Collectors.toList())));
+        final Map<UUID, CircumstancesCreateResult> results = new HashMap<>();
+        final List<ClaimCircumstances> created = new ArrayList<>();
+        for (CircumstancesRequest circumstancesRequest : chunk) {
+            if (existingClaimantIds.contains(circumstancesRequest.getClaimantId())) {
+                results.put(circumstancesRequest.getClaimantId(),
+                        CircumstancesCreateResult.conflict(circumstancesRequest.getClaimantId()));
+            } else {
+                created.add(createCircumstancesEntityWith(circumstancesRequest));
+            }
+        }
+        repository.saveAll(created);
+        repository.flush();
+        final List<UUID> createdIds = new ArrayList<>();
+        final List<UUID> createdClaimantIds = new ArrayList<>();
+        for (ClaimCircumstances claimCircumstances : created) {
+            final UUID claimantId = claimCircumstances.getClaimantId();
+            results.put(claimantId, CircumstancesCreateResult.created(claimantId, claimCircumstances.getId()));
+            createdIds.add(claimCircumstances.getId());
+            createdClaimantIds.add(claimantId);
+        }
+        recentWrites.recordAll(createdIds, createdClaimantIds);
+        cache.evictAll(createdIds, createdClaimantIds);
+        return results;
+    }
 
+    private CircumstancesCreateResult createOne(final CircumstancesRequest circumstancesRequest) {
         try {
-            return repository.save(claimCircumstances).getId();
+            final UUID id = transactionTemplate.execute(status -> {
+                final UUID createdId = repository.saveAndFlush(createCircumstancesEntityWith(circumstancesRequest))
+                        .getId();
+                recentWrites.record(createdId, circumstancesRequest.getClaimantId());
+                cache.evict(createdId, circumstancesRequest.getClaimantId());
+                return createdId;
+            });
+            return CircumstancesCreateResult.created(circumstancesRequest.getClaimantId(), id);
         } catch (DataIntegrityViolationException e) {
-            LOGGER.error("Error updating circumstances for claimantId: {}",
-                        circumstancesRequest.getClaimantId(), e);
-            throw new CircumstancesAlreadyExistsException();
+            LOGGER.debug("Circumstances already exist for claimantId: {}", circumstancesRequest.getClaimantId());
+            return CircumstancesCreateResult.conflict(circumstancesRequest.getClaimantId());
         }
+    }
+
+    public MigrationJobResponse saveEncrypted(final int batchLimit) {
+        try {
+            return new MigrationJobResponse(migrationJobs.startUnlessActive(
+                    EncryptionMigration.MIGRATION_NAME, batchLimit, encryptionMigration::start));
+        } catch (TaskRejectedException e) {
+            LOGGER.warn("Background executor full, not starting an encryption migration");
+            throw new BackgroundWorkRejectedException();
+        }
+    }
+
+    public MigrationJobResponse getMigrationJob(final UUID jobId) {
+        return migrationJobs.find(jobId).map(MigrationJobResponse::new).orElse(null);
+    }
+
+    public MigrationJobResponse pauseMigrationJob(final UUID jobId) {
+        return migrationJobs.find(jobId).map(job -> {
+            job.pause();
+            return new MigrationJobResponse(job);
+        }).orElse(null);
+    }
 
+    public MigrationJobResponse resumeMigrationJob(final UUID jobId) {
+        return migrationJobs.find(jobId).map(job -> {
+            job.resume();
+            return new MigrationJobResponse(job);
+        }).orElse(null);
+    }
+
+    public MigrationJobResponse cancelMigrationJob(final UUID jobId) {
+        return migrationJobs.find(jobId).map(job -> {
+            job.cancel();
+            return new MigrationJobResponse(job);
+        }).orElse(null);
+    }
+
+    public UUID update(final UUID uuid, final CircumstancesRequest circumstancesRequest) {
+        updateIfMatch(uuid, circumstancesRequest, null);
+        return uuid;
+    }
+
+    // locks the row through the no-JSON projection, so an unchanged update never decrypts or rewrites it
+    public String updateIfMatch(
+            final UUID uuid,
+            final CircumstancesRequest circumstancesRequest,
+            final String ifMatch
+    ) {
+        final String hash = hashOf(circumstancesRequest);
+        return transactionTemplate.execute(status -> {
+            final ClaimCircumstances claimCircumstances = repository.findByIdWithoutJsonForUpdate(uuid)
+                    .orElseThrow(CircumstancesNotFoundException::new);
+            if (ifMatch != null && !EntityTags.matchesStrongly(ifMatch, claimCircumstances.getHash())) {
+                throw new CircumstancesModifiedException();
+            }
+            if (hash.equals(claimCircumstances.getHash())) {
+                LOGGER.debug("Circumstances unchanged for id: {}", uuid);
+                return hash;
+            }
+            final UUID previousClaimantId = claimCircumstances.getClaimantId();
+            claimCircumstances.update(circumstancesRequest,
+                                      circumstancesRequest.getClaimantId(),
+                                      hash,
+                                      UserType.CITIZEN.toString(),
+                                      circumstancesRequest.getServiceVersion(),
+                                      circumstancesRequest.getLocale());
+
+            try {
+                repository.saveAndFlush(claimCircumstances);
+                recentWrites.recordAll(Collections.singletonList(uuid),
+                        Arrays.asList(previousClaimantId, circumstancesRequest.getClaimantId()));
+                cache.evict(uuid, previousClaimantId);
+                return hash;
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.error("Error updating circumstances for claimantId: {}",
+                            circumstancesRequest.getClaimantId(), e);
+                throw new CircumstancesAlreadyExistsException();
+            }
+        });
     }
 
     private ClaimCircumstances createCircumstancesEntityWith(final CircumstancesRequest circumstancesRequest) {
         return new ClaimCircumstances(
                 circumstancesRequest,
-                circumstancesRequest.getClaimantId().toString(),
-                DigestUtils.sha256Hex(createJsonFor(circumstancesRequest)),
+                circumstancesRequest.getClaimantId(),
+                hashOf(circumstancesRequest),
                 UserType.CITIZEN.toString(),
                 circumstancesRequest.getServiceVersion(),
                 circumstancesRequest.getLocale()
         );
     }
 
-    private String createJsonFor(final CircumstancesRequest circumstancesRequest) {
-        String requestJson;
+    private String hashOf(final CircumstancesRequest circumstancesRequest) {
+        final long start = System.nanoTime();
         try {
-            requestJson = mapper.writeValueAsString(circumstancesRequest);
-        } catch (JsonProcessingException e) {
+            return contentHasher.sha256Hex(circumstancesRequest);
+        } catch (IOException e) {
             LOGGER.error("Error creating JSON for circumstances for claimantId: {}",
                         circumstancesRequest.getClaimantId(), e);
             throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        } finally {
+            if (hashTimer != null) {
+                CircumstancesMetrics.record(hashTimer, start);
+            }
         }
-        return requestJson;
     }
 
-    public void delete(final UUID id) {
-        repository.deleteById(id);
+    @Transactional
+    public boolean delete(final UUID id) {
+        return deleteLeavingTombstones(Collections.singletonList(id)) > 0;
+    }
+
+    @Transactional
+    public int deleteByIds(final Collection<UUID> ids) {
+        return deleteLeavingTombstones(ids);
+    }
+
+    private int deleteLeavingTombstones(final Collection<UUID> ids) {
+        recentWrites.recordAll(ids, Collections.emptyList());
+        final List<String> deletedClaimantIds = repository.deleteByIdInLeavingTombstones(ids, LocalDateTime.now());
+        final List<UUID> claimantIds = deletedClaimantIds.stream()
+                .filter(Objects::nonNull)
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
+        recentWrites.recordAll(Collections.emptyList(), claimantIds);
+        cache.evictAll(ids, claimantIds);
+        return deletedClaimantIds.size();
     }
 }
@@ -0,0 +1,50 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * Hashes the JSON of the circumstances with properties sorted, so reordering fields in code keeps the hash.
+ */
+public final class ContentHasher {
+
+    private final ObjectWriter writer;
+
+    public ContentHasher(final ObjectMapper mapper) {
+        this.writer = mapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    public String sha256Hex(final Object value) throws IOException {
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        writer.writeValue(new DigestingOutputStream(digest), value);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static final class DigestingOutputStream extends OutputStream {
+        private final MessageDigest digest;
+
+        private DigestingOutputStream(final MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(final int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            digest.update(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import static java.util.Objects.isNull;
+
+public final class EntityTags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String QUOTE = "\"";
+
+    private EntityTags() {
+    }
+
+    public static String fromHash(final String hash) {
+        if (isNull(hash)) {
+            return null;
+        }
+        return QUOTE + hash + QUOTE;
+    }
+
+    // If-None-Match uses the weak comparison of RFC 7232
+    public static boolean matches(final String ifNoneMatch, final String hash) {
+        return matches(ifNoneMatch, hash, true);
+    }
+
+    // If-Match uses strong comparison, so weak tags never match
+    public static boolean matchesStrongly(final String ifMatch, final String hash) {
+        return matches(ifMatch, hash, false);
+    }
+
+    private static boolean matches(final String header, final String hash, final boolean weakComparison) {
+        if (isNull(header) || isNull(hash)) {
+            return false;
+        }
+        final String eTag = fromHash(hash);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (ANY.equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weakComparison) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (eTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
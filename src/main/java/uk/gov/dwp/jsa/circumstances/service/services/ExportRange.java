@@ -0,0 +1,58 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidExportRangeException;
+
+import java.time.LocalDateTime;
+
+/**
+ * The created or updated timestamps an export covers, from inclusive to exclusive.
+ */
+public final class ExportRange {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final boolean byCreated;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    private ExportRange(final boolean byCreated, final LocalDateTime from, final LocalDateTime to) {
+        this.byCreated = byCreated;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static ExportRange of(final String timestamp, final LocalDateTime from, final LocalDateTime to) {
+        if (!CREATED.equals(timestamp) && !UPDATED.equals(timestamp)) {
+            throw new InvalidExportRangeException();
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidExportRangeException();
+        }
+        return new ExportRange(CREATED.equals(timestamp), from, to);
+    }
+
+    public boolean isAll() {
+        return from == null && to == null;
+    }
+
+    public boolean isByCreated() {
+        return byCreated;
+    }
+
+    public LocalDateTime getFrom() {
+        return from == null ? EARLIEST : from;
+    }
+
+    public LocalDateTime getTo() {
+        return to == null ? LATEST : to;
+    }
+
+    @Override
+    public String toString() {
+        return (byCreated ? CREATED : UPDATED) + " from " + from + " to " + to;
+    }
+}
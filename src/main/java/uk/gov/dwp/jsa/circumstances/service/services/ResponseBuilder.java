@@ -16,6 +16,7 @@ public class ResponseBuilder<T> {
     private HttpStatus httpStatus;
     private ApiError apiError;
     private List<ApiSuccess<T>> apiSuccessData;
+    private String eTag;
 
     public ResponseBuilder<T> withStatus(final HttpStatus httpStatus) {
         Objects.requireNonNull(httpStatus);
@@ -52,6 +53,12 @@ public class ResponseBuilder<T> {
         return this;
     }
 
+    public ResponseBuilder<T> withETag(final String eTag) {
+        Objects.requireNonNull(eTag);
+        this.eTag = eTag;
+        return this;
+    }
+
     public ResponseEntity<ApiResponse<T>> build() {
         Objects.requireNonNull(httpStatus);
 
@@ -59,9 +66,11 @@ public class ResponseBuilder<T> {
         apiResponse.setError(apiError);
         apiResponse.setSuccess(apiSuccessData);
 
-        return ResponseEntity
-                .status(httpStatus)
-                .body(apiResponse);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.status(httpStatus);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(apiResponse);
 
     }
 }
@@ -0,0 +1,106 @@
+--liquibase formatted sql
+--Tables are qualified with the schema changelog parameter: spring.liquibase.parameters.schema, set from
+--circumstances.db.schema, or -Dschema=<schema> when running the Liquibase CLI
+
+--changeset circumstances-service:compact-columns-1
+--comment: Native uuid and bytea copies of claimant_id and hash, filled in by the changesets below
+alter table ${schema}.claim_circumstances
+    add column if not exists claimant_uuid uuid,
+    add column if not exists hash_digest bytea;
+--rollback alter table ${schema}.claim_circumstances drop column claimant_uuid, drop column hash_digest;
+
+--changeset circumstances-service:compact-columns-2 splitStatements:false
+--comment: Keeps both representations in step while old and new versions of the service write to the table
+create or replace function ${schema}.sync_compact_columns() returns trigger as $$
+begin
+    if tg_op = 'INSERT' then
+        new.claimant_uuid := coalesce(new.claimant_uuid, new.claimant_id::uuid);
+        new.claimant_id := coalesce(new.claimant_id, new.claimant_uuid::text);
+        new.hash_digest := coalesce(new.hash_digest, decode(new.hash, 'hex'));
+        new.hash := coalesce(new.hash, encode(new.hash_digest, 'hex'));
+        return new;
+    end if;
+    if new.claimant_id is distinct from old.claimant_id then
+        new.claimant_uuid := new.claimant_id::uuid;
+    elsif new.claimant_uuid is distinct from old.claimant_uuid then
+        new.claimant_id := new.claimant_uuid::text;
+    end if;
+    if new.hash is distinct from old.hash then
+        new.hash_digest := decode(new.hash, 'hex');
+    elsif new.hash_digest is distinct from old.hash_digest then
+        new.hash := encode(new.hash_digest, 'hex');
+    end if;
+    return new;
+end
+$$ language plpgsql;
+
+drop trigger if exists sync_compact_columns on ${schema}.claim_circumstances;
+create trigger sync_compact_columns
+    before insert or update on ${schema}.claim_circumstances
+    for each row execute procedure ${schema}.sync_compact_columns();
+--rollback drop trigger sync_compact_columns on ${schema}.claim_circumstances;
+--rollback drop function ${schema}.sync_compact_columns();
+
+--changeset circumstances-service:compact-columns-3 runInTransaction:false splitStatements:false
+--comment: Backfills existing rows in id order, committing every batch so locks are short and vacuum can keep up. The commit inside the block needs Postgres 11 or later and the changeset to run outside a transaction, hence runInTransaction:false
+--preconditions onFail:HALT onError:HALT
+--precondition-sql-check expectedResult:1 select count(*) where current_setting('server_version_num')::int >= 110000
+do $$
+declare
+    last_id uuid := '00000000-0000-0000-0000-000000000000';
+    batch_last_id uuid;
+begin
+    loop
+        with batch as (
+            select id from ${schema}.claim_circumstances
+            where id > last_id
+            order by id
+            limit 5000
+        ), backfilled as (
+            update ${schema}.claim_circumstances c
+            set claimant_uuid = c.claimant_id::uuid, hash_digest = decode(c.hash, 'hex')
+            from batch
+            where c.id = batch.id and c.claimant_uuid is null
+        )
+        select id into batch_last_id from batch order by id desc limit 1;
+        exit when batch_last_id is null;
+        last_id := batch_last_id;
+        commit;
+    end loop;
+end
+$$;
+
+--changeset circumstances-service:compact-columns-4 runInTransaction:false
+--comment: Built concurrently so lookups and writes carry on while it runs
+create unique index concurrently if not exists claim_circumstances_claimant_uuid_key
+    on ${schema}.claim_circumstances (claimant_uuid);
+--rollback drop index concurrently ${schema}.claim_circumstances_claimant_uuid_key;
+
+--changeset circumstances-service:compact-columns-5
+--comment: Added not valid, so the access exclusive lock is only held for the catalog change and not for a table scan
+alter table ${schema}.claim_circumstances
+    add constraint claim_circumstances_claimant_uuid_not_null check (claimant_uuid is not null) not valid;
+--rollback alter table ${schema}.claim_circumstances drop constraint claim_circumstances_claimant_uuid_not_null;
+
+--changeset circumstances-service:compact-columns-6
+--comment: Validated in a transaction of its own, which only takes a share update exclusive lock, unlike set not null
+alter table ${schema}.claim_circumstances
+    validate constraint claim_circumstances_claimant_uuid_not_null;
+--rollback select 1;
+
+--changeset circumstances-service:change-feed-1 runInTransaction:false
+--comment: Keyset pagination of the change feed on (updated_timestamp, id), built concurrently so writes carry on
+create index concurrently if not exists claim_circumstances_updated_timestamp_id_idx
+    on ${schema}.claim_circumstances (updated_timestamp, id);
+--rollback drop index concurrently ${schema}.claim_circumstances_updated_timestamp_id_idx;
+
+--changeset circumstances-service:change-feed-2
+--comment: What is left of deleted circumstances, so the change feed can report deletes
+create table if not exists ${schema}.claim_circumstances_tombstone (
+    id uuid not null primary key,
+    claimant_uuid uuid,
+    deleted_timestamp timestamp not null
+);
+create index if not exists claim_circumstances_tombstone_deleted_timestamp_id_idx
+    on ${schema}.claim_circumstances_tombstone (deleted_timestamp, id);
+--rollback drop table ${schema}.claim_circumstances_tombstone;
@@ -0,0 +1,111 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the rows per second of creating circumstances one request at a time, where every row is its own
+ * insert and commit as with {@code POST /citizen/{claimantId}/claim}, with the bulk create path, which sends
+ * the inserts of a chunk as one JDBC batch and commits once per chunk. The batched runs are repeated with the
+ * driver's {@code reWriteBatchedInserts}, which turns a batch into multi-row inserts.
+ * Encryption is left out as it costs the same per row on both paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkCreateBenchmark {
+
+    private static final int ROWS_PER_INVOCATION = 500;
+    private static final String INSERT = "insert into circumstances_schema.claim_circumstances (id, claimant_uuid, "
+            + "claim_circumstances_json, created_timestamp, updated_timestamp, hash_digest, source, service_version, "
+            + "locale, encrypted_json) values (?, ?, ?::jsonb, ?, ?, ?, 'CITIZEN', '1', 'en', true)";
+
+    @Param({"50", "100"})
+    private int chunkSize;
+
+    @Param({"false", "true"})
+    private boolean reWriteBatchedInserts;
+
+    private PerfDatabase database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = PerfDatabase.start();
+        connection = database.dataSource(Collections.singletonMap(
+                "reWriteBatchedInserts", String.valueOf(reWriteBatchedInserts))).getConnection();
+        insert = connection.prepareStatement(INSERT);
+        payload = PerfDatabase.payload();
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() throws Exception {
+        database.truncateClaimCircumstances();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void oneRowPerTransaction() throws Exception {
+        connection.setAutoCommit(true);
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            bindRow();
+            insert.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void batchedChunks() throws Exception {
+        connection.setAutoCommit(false);
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            bindRow();
+            insert.addBatch();
+            if ((i + 1) % chunkSize == 0 || i + 1 == ROWS_PER_INVOCATION) {
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    private void bindRow() throws Exception {
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insert.setObject(1, UUID.randomUUID());
+        insert.setObject(2, UUID.randomUUID());
+        insert.setString(3, payload);
+        insert.setTimestamp(4, now);
+        insert.setTimestamp(5, now);
+        insert.setBytes(6, DigestUtils.sha256(UUID.randomUUID().toString()));
+    }
+}
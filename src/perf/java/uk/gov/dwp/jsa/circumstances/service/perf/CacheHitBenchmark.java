@@ -0,0 +1,85 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.jsa.circumstances.service.cache.CacheInvalidationPublisher;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCache;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCacheProperties;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A cache hit on its own and together with writing the response, as a get by id does, against reading the
+ * response back from JSON, which every hit cost while the cache kept serialized circumstances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheHitBenchmark {
+
+    @Param({Fixtures.SMALL, Fixtures.TYPICAL, Fixtures.LARGE})
+    private String fixture;
+
+    private CircumstancesCache cache;
+    private Function<UUID, CircumstancesResponse> loader;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private UUID id;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+        final CircumstancesCacheProperties properties = new CircumstancesCacheProperties();
+        properties.getInvalidation().setEnabled(false);
+        cache = new CircumstancesCache(properties, mapper, new CacheInvalidationPublisher(null, properties),
+                new SimpleMeterRegistry());
+        reader = mapper.readerFor(CircumstancesResponse.class);
+        writer = mapper.writerFor(CircumstancesResponse.class);
+        id = UUID.randomUUID();
+        final CircumstancesResponse response = new CircumstancesResponse(
+                new ClaimCircumstances(id, Fixtures.request(mapper, fixture), "1"));
+        json = writer.writeValueAsBytes(response);
+        loader = key -> {
+            throw new IllegalStateException("Missed the cache");
+        };
+        cache.getById(id, key -> response);
+    }
+
+    @Benchmark
+    public CircumstancesResponse hit() {
+        return cache.getById(id, loader);
+    }
+
+    @Benchmark
+    public byte[] hitAndWrite() throws Exception {
+        return writer.writeValueAsBytes(cache.getById(id, loader));
+    }
+
+    @Benchmark
+    public CircumstancesResponse readCachedJson() throws Exception {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,187 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.DynamicParameterizedType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.gov.dwp.jsa.adaptors.http.api.ApiResponse;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.services.ContentHasher;
+import uk.gov.dwp.jsa.circumstances.service.services.EntityTags;
+import uk.gov.dwp.jsa.circumstances.service.services.ResponseBuilder;
+import uk.gov.dwp.jsa.security.encryption.SecuredJsonBinaryType;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request work of the service outside the database, over the {@link Fixtures}: hashing the
+ * circumstances when they are saved, building the response from the stored entity, writing and reading the
+ * payload through {@link SecuredJsonBinaryType} and building and serializing the {@link ApiResponse} of a get.
+ * <p>
+ * The round trip drives the type through the statement and result set calls Hibernate makes, against stand-ins
+ * that hand the bound value straight back, so it measures the JSON mapping and encryption without a database.
+ * The type encrypts with the key the security library is configured with, as for a local run of the service,
+ * and the set up fails when the payload is bound as plain JSON, so the numbers are never of the unencrypted
+ * path. Response construction copies the request properties, so its cost does not grow with the size of the
+ * fixture.
+ * <p>
+ * The perf profile writes the results as JSON to {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CircumstancesBenchmark {
+
+    private static final String PATH = "/circumstances/";
+
+    @Param({Fixtures.SMALL, Fixtures.TYPICAL, Fixtures.LARGE})
+    private String fixture;
+
+    private ContentHasher hasher;
+    private ObjectWriter apiResponseWriter;
+    private SecuredJsonBinaryType securedJsonType;
+    private SharedSessionContractImplementor session;
+    private final Object[] bound = new Object[1];
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private Map<String, Object> document;
+    private ClaimCircumstances claimCircumstances;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+        hasher = new ContentHasher(mapper);
+        apiResponseWriter = mapper.writerFor(ApiResponse.class);
+        securedJsonType = new SecuredJsonBinaryType();
+        securedJsonType.setParameterValues(parameterTypeOf(Map.class));
+        session = session();
+        statement = statementCapturing(bound);
+        resultSet = resultSetReturning(bound);
+        document = Fixtures.document(mapper, fixture);
+        claimCircumstances = new ClaimCircumstances(UUID.randomUUID(), Fixtures.request(mapper, fixture), "1");
+        hash = hasher.sha256Hex(document);
+        claimCircumstances.setHash(hash);
+        requireEncryption(mapper);
+    }
+
+    @Benchmark
+    public String contentHash() throws Exception {
+        return hasher.sha256Hex(document);
+    }
+
+    @Benchmark
+    public CircumstancesResponse responseConstruction() {
+        return new CircumstancesResponse(claimCircumstances);
+    }
+
+    @Benchmark
+    public Object securedJsonRoundTrip() throws Exception {
+        securedJsonType.nullSafeSet(statement, document, 1, session);
+        return securedJsonType.nullSafeGet(resultSet, "json", session);
+    }
+
+    @Benchmark
+    public byte[] apiResponse() throws Exception {
+        final ResponseEntity<ApiResponse<Map<String, Object>>> response = new ResponseBuilder<Map<String, Object>>()
+                .withStatus(HttpStatus.OK)
+                .withSuccessData(URI.create(PATH + claimCircumstances.getId()), document)
+                .withETag(EntityTags.fromHash(hash))
+                .build();
+        return apiResponseWriter.writeValueAsBytes(response.getBody());
+    }
+
+    private void requireEncryption(final ObjectMapper mapper) throws Exception {
+        securedJsonType.nullSafeSet(statement, document, 1, session);
+        final JsonNode plain = mapper.valueToTree(document);
+        final JsonNode bindsAs;
+        try {
+            bindsAs = mapper.readTree(String.valueOf(bound[0]));
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        if (plain.equals(bindsAs)) {
+            throw new IllegalStateException("SecuredJsonBinaryType bound the payload unencrypted; configure the "
+                    + "security library with a local encryption key for the benchmark JVM");
+        }
+    }
+
+    private static Properties parameterTypeOf(final Class<?> type) {
+        final Properties parameters = new Properties();
+        parameters.put(DynamicParameterizedType.PARAMETER_TYPE, Proxy.newProxyInstance(
+                CircumstancesBenchmark.class.getClassLoader(),
+                new Class<?>[]{DynamicParameterizedType.ParameterType.class},
+                (proxy, method, args) -> "getReturnedClass".equals(method.getName()) ? type : null));
+        return parameters;
+    }
+
+    /**
+     * Only the wrapper options of the session are used when binding and extracting a basic type.
+     */
+    private static SharedSessionContractImplementor session() {
+        return (SharedSessionContractImplementor) Proxy.newProxyInstance(
+                CircumstancesBenchmark.class.getClassLoader(),
+                new Class<?>[]{SharedSessionContractImplementor.class},
+                (proxy, method, args) -> {
+                    if ("remapSqlTypeDescriptor".equals(method.getName())) {
+                        return args[0];
+                    }
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                });
+    }
+
+    private static PreparedStatement statementCapturing(final Object[] bound) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                CircumstancesBenchmark.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if ("setObject".equals(method.getName())) {
+                        bound[0] = args[1];
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Hands back the bound value as text, as the driver returns a jsonb column.
+     */
+    private static ResultSet resultSetReturning(final Object[] bound) {
+        return (ResultSet) Proxy.newProxyInstance(
+                CircumstancesBenchmark.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if ("getObject".equals(method.getName())) {
+                        return String.valueOf(bound[0]);
+                    }
+                    return "wasNull".equals(method.getName()) ? Boolean.FALSE : null;
+                });
+    }
+}
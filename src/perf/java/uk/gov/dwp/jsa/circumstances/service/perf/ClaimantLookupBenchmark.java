@@ -0,0 +1,97 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving a set of claimants one query at a time, as N calls to
+ * {@code findByClaimantId} do, with the single {@code claimant_uuid in (...)} query issued by
+ * {@code streamByClaimantIdIn}. Both read the same columns, so decryption cost is identical per row and
+ * left out; what is measured is the round trips and index probes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimantLookupBenchmark {
+
+    private static final String COLUMNS = "select id, claimant_uuid, claim_circumstances_json, created_timestamp, "
+            + "updated_timestamp, hash_digest, source, service_version, locale, encrypted_json "
+            + "from circumstances_schema.claim_circumstances ";
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"10", "100", "500"})
+    private int claimants;
+
+    private PerfDatabase database;
+    private Connection connection;
+    private List<UUID> claimantIds;
+    private PreparedStatement singleLookup;
+    private PreparedStatement batchLookup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = PerfDatabase.start();
+        database.seedClaimCircumstances(rows);
+        claimantIds = database.randomClaimantIds(claimants);
+        connection = database.dataSource().getConnection();
+        singleLookup = connection.prepareStatement(COLUMNS + "where claimant_uuid = ?");
+        batchLookup = connection.prepareStatement(COLUMNS + "where claimant_uuid in ("
+                + String.join(", ", Collections.nCopies(claimants, "?")) + ")");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void oneClaimantPerQuery(final Blackhole blackhole) throws Exception {
+        for (UUID claimantId : claimantIds) {
+            singleLookup.setObject(1, claimantId);
+            consume(singleLookup, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void allClaimantsInOneQuery(final Blackhole blackhole) throws Exception {
+        for (int i = 0; i < claimantIds.size(); i++) {
+            batchLookup.setObject(i + 1, claimantIds.get(i));
+        }
+        consume(batchLookup, blackhole);
+    }
+
+    private static void consume(final PreparedStatement statement, final Blackhole blackhole) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getString("claim_circumstances_json"));
+                blackhole.consume(resultSet.getBytes("hash_digest"));
+            }
+        }
+    }
+}
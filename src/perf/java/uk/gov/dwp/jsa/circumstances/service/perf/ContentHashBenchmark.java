@@ -0,0 +1,73 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.services.ContentHasher;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hashing the circumstances by first writing their JSON to a string, as the service used to, with
+ * streaming the JSON into the digest through {@link ContentHasher}. Run with {@code -prof gc} to see the
+ * allocation per hash, which is where most of the difference is. The {@code request} document is a
+ * circumstances request; {@code payload} is a document the size of the seeded benchmark rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentHashBenchmark {
+
+    @Param({"request", "payload"})
+    private String document;
+
+    private ObjectMapper mapper;
+    private ContentHasher hasher;
+    private Object value;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mapper = new ServiceObjectMapperProvider().get();
+        hasher = new ContentHasher(mapper);
+        if ("request".equals(document)) {
+            final CircumstancesRequest request = new CircumstancesRequest();
+            request.setClaimantId(UUID.randomUUID());
+            request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+            request.setClaimStartDate(LocalDate.of(2020, 1, 2));
+            request.setServiceVersion("1");
+            request.setLocale("en");
+            value = request;
+        } else {
+            value = mapper.readValue(PerfDatabase.payload(), Map.class);
+        }
+    }
+
+    @Benchmark
+    public String jsonStringThenHash() throws Exception {
+        return DigestUtils.sha256Hex(mapper.writeValueAsString(value));
+    }
+
+    @Benchmark
+    public String streamedIntoDigest() throws Exception {
+        return hasher.sha256Hex(value);
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * The checked in circumstances documents under {@code fixtures/}: {@code small} carries only the fields the
+ * service itself reads, {@code typical} a claim with some employment history and a pension, and {@code large}
+ * a long claim history with many notes. They are loaded as JSON trees, so that they do not have to follow the
+ * adaptors DTO field for field, and the paths whose cost depends on the size of the document are measured on
+ * the tree.
+ */
+public final class Fixtures {
+
+    public static final String SMALL = "small";
+    public static final String TYPICAL = "typical";
+    public static final String LARGE = "large";
+
+    private Fixtures() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> document(final ObjectMapper mapper, final String size) throws IOException {
+        try (InputStream json = resource(size)) {
+            return mapper.readValue(json, Map.class);
+        }
+    }
+
+    /**
+     * Reads the fixture as a circumstances request, dropping the fields the request does not declare.
+     */
+    public static CircumstancesRequest request(final ObjectMapper mapper, final String size) throws IOException {
+        try (InputStream json = resource(size)) {
+            return mapper.readerFor(CircumstancesRequest.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(json);
+        }
+    }
+
+    private static InputStream resource(final String size) throws IOException {
+        return new ClassPathResource("fixtures/circumstances-" + size + ".json").getInputStream();
+    }
+}
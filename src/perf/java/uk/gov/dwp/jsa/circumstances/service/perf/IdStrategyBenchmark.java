@@ -0,0 +1,118 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstancesIdGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput and primary key index size with random (version 4) and time ordered
+ * (version 7) ids. The table is first seeded with rows carrying random ids, as the existing data does, and
+ * every invocation then inserts a chunk of new rows the way the bulk create path does. The index size and
+ * the WAL written per row are printed when each trial ends, as JMH has no way to report them as a score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdStrategyBenchmark {
+
+    private static final int ROWS_PER_INVOCATION = 1000;
+    private static final String INSERT = "insert into circumstances_schema.claim_circumstances (id, claimant_uuid, "
+            + "claim_circumstances_json, created_timestamp, updated_timestamp, hash_digest, source, service_version, "
+            + "locale, encrypted_json) values (?, ?, ?::jsonb, ?, ?, ?, 'CITIZEN', '1', 'en', true)";
+    private static final String WAL_POSITION = "select pg_current_wal_lsn()::text";
+    private static final String INDEX_SIZE = "select pg_relation_size('circumstances_schema.claim_circumstances_pkey'), "
+            + "pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint";
+
+    @Param({"0", "1000000"})
+    private int existingRows;
+
+    @Param({ClaimCircumstancesIdGenerator.RANDOM, ClaimCircumstancesIdGenerator.TIME_ORDERED})
+    private String strategy;
+
+    private PerfDatabase database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+    private String payload;
+    private String walPositionBeforeInserts;
+    private long insertedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = PerfDatabase.start();
+        database.seedClaimCircumstances(existingRows);
+        connection = database.dataSource().getConnection();
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT);
+        ids = ClaimCircumstancesIdGenerator.RANDOM.equals(strategy)
+                ? UUID::randomUUID
+                : ClaimCircumstancesIdGenerator::timeOrderedUuid;
+        payload = PerfDatabase.payload();
+        try (PreparedStatement select = connection.prepareStatement(WAL_POSITION);
+             ResultSet resultSet = select.executeQuery()) {
+            resultSet.next();
+            walPositionBeforeInserts = resultSet.getString(1);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (PreparedStatement select = connection.prepareStatement(INDEX_SIZE)) {
+            select.setString(1, walPositionBeforeInserts);
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                final long rows = existingRows + insertedRows;
+                System.out.printf("%n%s ids after %d existing rows: primary key index %.1f bytes per row, "
+                                + "%.1f bytes of WAL per inserted row%n",
+                        strategy, existingRows, (double) resultSet.getLong(1) / rows,
+                        (double) resultSet.getLong(2) / insertedRows);
+            }
+        }
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void insertChunk() throws Exception {
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            insert.setObject(1, ids.get());
+            insert.setObject(2, UUID.randomUUID());
+            insert.setString(3, payload);
+            insert.setTimestamp(4, now);
+            insert.setTimestamp(5, now);
+            insert.setBytes(6, DigestUtils.sha256(UUID.randomUUID().toString()));
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+        insertedRows += ROWS_PER_INVOCATION;
+    }
+}
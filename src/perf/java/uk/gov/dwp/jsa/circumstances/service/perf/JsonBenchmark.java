@@ -0,0 +1,88 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization throughput of the circumstances through the mapper, as Spring MVC does it
+ * per request, and through readers and writers bound to the type up front, as the cache does. Run with
+ * {@code -Dcircumstances.jackson.afterburner=true} on the command line and {@code -p afterburner=true} to
+ * compare with the Afterburner module registered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"false"})
+    private boolean afterburner;
+
+    private ObjectMapper mapper;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private CircumstancesResponse response;
+    private byte[] requestJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (afterburner != Boolean.getBoolean(ServiceObjectMapperProvider.AFTERBURNER_PROPERTY)) {
+            throw new IllegalStateException("Set -D" + ServiceObjectMapperProvider.AFTERBURNER_PROPERTY + "="
+                    + afterburner + " as well");
+        }
+        mapper = new ServiceObjectMapperProvider().get();
+        requestReader = mapper.readerFor(CircumstancesRequest.class);
+        responseWriter = mapper.writerFor(CircumstancesResponse.class);
+        final CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(UUID.randomUUID());
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        request.setClaimStartDate(LocalDate.of(2020, 1, 2));
+        request.setServiceVersion("1");
+        request.setLocale("en");
+        response = new CircumstancesResponse(new ClaimCircumstances(UUID.randomUUID(), request, "1"));
+        requestJson = mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public Object readWithMapper() throws Exception {
+        return mapper.readValue(requestJson, CircumstancesRequest.class);
+    }
+
+    @Benchmark
+    public Object readWithBoundReader() throws Exception {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeWithMapper() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeWithBoundWriter() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
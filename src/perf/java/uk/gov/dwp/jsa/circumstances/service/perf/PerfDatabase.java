@@ -0,0 +1,138 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Embedded Postgres instance with the circumstances schema, used by the benchmarks.
+ */
+public final class PerfDatabase implements AutoCloseable {
+
+    public static final String USER = "postgres";
+
+    private static final String SCHEMA_SCRIPT = "perf-schema.sql";
+    private static final int PAYLOAD_BYTES = 2048;
+
+    private final EmbeddedPostgres postgres;
+
+    private PerfDatabase(final EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    public static PerfDatabase start() throws IOException, SQLException {
+        final PerfDatabase database = new PerfDatabase(EmbeddedPostgres.start());
+        try (Connection connection = database.dataSource().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(SCHEMA_SCRIPT));
+        }
+        return database;
+    }
+
+    public String jdbcUrl() {
+        return postgres.getJdbcUrl(USER, USER);
+    }
+
+    public DataSource dataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    /**
+     * @param properties JDBC driver properties, such as {@code reWriteBatchedInserts}
+     */
+    public DataSource dataSource(final Map<String, String> properties) {
+        return postgres.getPostgresDatabase(properties);
+    }
+
+    /**
+     * Inserts {@code rows} claim circumstances with a representative payload size.
+     */
+    public void seedClaimCircumstances(final int rows) throws SQLException {
+        try (Connection connection = dataSource().getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into circumstances_schema.claim_circumstances (id, claimant_uuid, "
+                             + "claim_circumstances_json, created_timestamp, updated_timestamp, hash_digest, source, "
+                             + "service_version, locale, encrypted_json) "
+                             + "select md5('id' || i)::uuid, md5('claimant' || i)::uuid, ?::jsonb, now(), "
+                             + "now(), decode(md5('hash' || i) || md5('digest' || i), 'hex'), 'CITIZEN', '1', 'en', true "
+                             + "from generate_series(1, ?) as i")) {
+            insert.setString(1, payload());
+            insert.setInt(2, rows);
+            insert.executeUpdate();
+            connection.createStatement().execute("analyze circumstances_schema.claim_circumstances");
+        }
+    }
+
+    /**
+     * Replaces the claim circumstances of {@code target} with a copy of these, standing in for replication.
+     */
+    public void copyClaimCircumstancesTo(final PerfDatabase target) throws SQLException, IOException {
+        final ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        try (Connection connection = dataSource().getConnection()) {
+            copyManager(connection).copyOut("copy circumstances_schema.claim_circumstances to stdout (format binary)",
+                    rows);
+        }
+        target.truncateClaimCircumstances();
+        try (Connection connection = target.dataSource().getConnection()) {
+            copyManager(connection).copyIn("copy circumstances_schema.claim_circumstances from stdin (format binary)",
+                    new ByteArrayInputStream(rows.toByteArray()));
+            connection.createStatement().execute("analyze circumstances_schema.claim_circumstances");
+        }
+    }
+
+    public void truncateClaimCircumstances() throws SQLException {
+        try (Connection connection = dataSource().getConnection()) {
+            connection.createStatement().execute("truncate circumstances_schema.claim_circumstances");
+        }
+    }
+
+    /**
+     * Returns {@code count} claimant ids of seeded rows, in random order.
+     */
+    public List<UUID> randomClaimantIds(final int count) throws SQLException {
+        try (Connection connection = dataSource().getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "select claimant_uuid from circumstances_schema.claim_circumstances "
+                             + "order by random() limit ?")) {
+            select.setInt(1, count);
+            final List<UUID> claimantIds = new ArrayList<>(count);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    claimantIds.add(resultSet.getObject(1, UUID.class));
+                }
+            }
+            return claimantIds;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+
+    private static CopyManager copyManager(final Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    static String payload() {
+        final StringBuilder padding = new StringBuilder(PAYLOAD_BYTES);
+        while (padding.length() < PAYLOAD_BYTES) {
+            padding.append("circumstances ");
+        }
+        return "{\"data\": \"" + padding + "\"}";
+    }
+}
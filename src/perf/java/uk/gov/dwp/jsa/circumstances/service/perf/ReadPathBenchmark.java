@@ -0,0 +1,126 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.dwp.jsa.circumstances.service.Application;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesService;
+
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading circumstances by id and by claimant through the Hibernate entity, as the service does by
+ * default, with the jOOQ reader used with {@code circumstances.jooq-reads}. The service is booted against an
+ * embedded Postgres so that both go through the same pool, transaction and payload type; the cache is bypassed.
+ * Run with {@code -prof gc} for the allocation per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int KEY_SIZE = 2048;
+
+    @Param({"1000"})
+    private int rows;
+
+    @Param({"hibernate", "jooq"})
+    private String path;
+
+    private PerfDatabase database;
+    private ConfigurableApplicationContext application;
+    private CircumstancesRepository repository;
+    private CircumstancesReader reader;
+    private TransactionTemplate readOnly;
+    private final List<UUID> ids = new ArrayList<>();
+    private final List<UUID> claimantIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = PerfDatabase.start();
+        application = start(database);
+        repository = application.getBean(CircumstancesRepository.class);
+        reader = application.getBean(CircumstancesReader.class);
+        readOnly = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        // seeded through the service so that the payloads are stored as the payload type writes them
+        final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+        final CircumstancesService service = application.getBean(CircumstancesService.class);
+        for (int i = 0; i < rows; i++) {
+            final CircumstancesRequest request = Fixtures.request(mapper, Fixtures.TYPICAL);
+            request.setClaimantId(UUID.randomUUID());
+            ids.add(service.save(request));
+            claimantIds.add(request.getClaimantId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+        database.close();
+    }
+
+    @Benchmark
+    public CircumstancesResponse byId() {
+        final UUID id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return readOnly.execute(status -> "jooq".equals(path)
+                ? reader.findById(id).orElse(null)
+                : repository.findById(id).map(CircumstancesResponse::new).orElse(null));
+    }
+
+    @Benchmark
+    public CircumstancesResponse byClaimantId() {
+        final UUID claimantId = claimantIds.get(ThreadLocalRandom.current().nextInt(claimantIds.size()));
+        return readOnly.execute(status -> "jooq".equals(path)
+                ? reader.findByClaimantId(claimantId).orElse(null)
+                : repository.findByClaimantId(claimantId).map(CircumstancesResponse::new).orElse(null));
+    }
+
+    private static ConfigurableApplicationContext start(final PerfDatabase database) throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("circumstances.db.url", database.jdbcUrl());
+        properties.put("circumstances.db.login", PerfDatabase.USER);
+        properties.put("circumstances.db.password", PerfDatabase.USER);
+        properties.put("circumstances.db.schema", "circumstances_schema");
+        properties.put("services.publicKey",
+                Base64.getEncoder().encodeToString(generator.generateKeyPair().getPublic().getEncoded()));
+        properties.put("logging.level.uk.gov.dwp.jsa", "WARN");
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(Application.class).properties(properties).run();
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.jsa.circumstances.service.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.models.http.PropertyCopier;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares copying the stored circumstances onto a response with {@code BeanUtils.copyProperties}, as the
+ * response constructor used to, with {@link PropertyCopier}. Run with {@code -prof gc} for the allocation
+ * per copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private final PropertyCopier<CircumstancesRequest> copier = PropertyCopier.forType(CircumstancesRequest.class);
+
+    private ClaimCircumstances claimCircumstances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(UUID.randomUUID());
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        request.setClaimStartDate(LocalDate.of(2020, 1, 2));
+        request.setServiceVersion("1");
+        request.setLocale("en");
+        claimCircumstances = new ClaimCircumstances(UUID.randomUUID(), request, "1");
+    }
+
+    @Benchmark
+    public CircumstancesRequest beanUtils() {
+        final CircumstancesRequest response = new CircumstancesRequest();
+        BeanUtils.copyProperties(claimCircumstances.getClaimCircumstancesJson(), response);
+        return response;
+    }
+
+    @Benchmark
+    public CircumstancesRequest propertyCopier() {
+        final CircumstancesRequest response = new CircumstancesRequest();
+        copier.copy(claimCircumstances.getClaimCircumstancesJson(), response);
+        return response;
+    }
+
+    @Benchmark
+    public CircumstancesResponse responseConstructor() {
+        return new CircumstancesResponse(claimCircumstances);
+    }
+}
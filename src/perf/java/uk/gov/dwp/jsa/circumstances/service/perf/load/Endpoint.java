@@ -0,0 +1,43 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+/**
+ * The operations the load test drives, with their default share of the traffic.
+ */
+enum Endpoint {
+    GET_BY_ID("get-by-id", "GET /claim/{id}", 50),
+    GET_BY_CLAIMANT("get-by-claimant", "GET /citizen/{claimantId}/claim", 25),
+    CREATE("create", "POST /citizen/{claimantId}/claim", 10),
+    UPDATE("update", "PATCH /claim/{id}", 10),
+    DELETE("delete", "DELETE /claim/{id}", 5);
+
+    private final String key;
+    private final String description;
+    private final int defaultWeight;
+
+    Endpoint(final String key, final String description, final int defaultWeight) {
+        this.key = key;
+        this.description = description;
+        this.defaultWeight = defaultWeight;
+    }
+
+    static Endpoint forKey(final String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + key);
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and errors of one endpoint, recorded by a single client thread and added up at the end of the run.
+ * Responses with a status of 400 or above and requests that failed with an exception count as errors; their
+ * latency is recorded as well.
+ */
+final class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram latencies = new Histogram(SIGNIFICANT_DIGITS);
+    private long errors;
+
+    void record(final long latencyNanos, final boolean error) {
+        latencies.recordValue(latencyNanos);
+        if (error) {
+            errors++;
+        }
+    }
+
+    void add(final EndpointStats other) {
+        latencies.add(other.latencies);
+        errors += other.errors;
+    }
+
+    Histogram getLatencies() {
+        return latencies;
+    }
+
+    long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors;
+    }
+}
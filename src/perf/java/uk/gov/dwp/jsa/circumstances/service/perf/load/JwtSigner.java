@@ -0,0 +1,63 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signs RS256 tokens with an RSA key generated for the run. The service is started with the public half as
+ * {@code services.publicKey}, in the form {@code createPublicKey.sh} writes it.
+ */
+final class JwtSigner {
+
+    private static final int KEY_SIZE = 2048;
+    private static final String HEADER = "{\"alg\":\"RS256\",\"typ\":\"JWT\"}";
+
+    private final KeyPair keyPair;
+    private final ObjectMapper mapper;
+
+    private JwtSigner(final KeyPair keyPair, final ObjectMapper mapper) {
+        this.keyPair = keyPair;
+        this.mapper = mapper;
+    }
+
+    static JwtSigner generate(final ObjectMapper mapper) throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(KEY_SIZE);
+        return new JwtSigner(generator.generateKeyPair(), mapper);
+    }
+
+    String publicKey() {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    String token(final String roleClaim, final String role, final Duration validity)
+            throws GeneralSecurityException, IOException {
+        final Instant now = Instant.now();
+        final Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", "loadtest");
+        claims.put(roleClaim, role);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(validity).getEpochSecond());
+        final String content = encode(HEADER.getBytes(StandardCharsets.UTF_8)) + "."
+                + encode(mapper.writeValueAsBytes(claims));
+        final Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+        return content + "." + encode(signature.sign());
+    }
+
+    private static String encode(final byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
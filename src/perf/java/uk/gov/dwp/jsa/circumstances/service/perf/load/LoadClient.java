@@ -0,0 +1,202 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sends the circumstances requests of the load test over a pooled HTTP client, one connection per client
+ * thread. Request bodies are the {@code typical} fixture with the claimant id, and for updates the date of
+ * claim, filled in.
+ */
+final class LoadClient implements Closeable {
+
+    private static final String BEARER = "Bearer ";
+    private static final int DATE_RANGE_DAYS = 365;
+
+    private final CloseableHttpClient httpClient;
+    private final String baseUrl;
+    private final ObjectMapper mapper;
+    private final ObjectReader jsonReader;
+    private final ObjectWriter jsonWriter;
+    private final ObjectNode template;
+    private final String token;
+    private final String workCoachToken;
+
+    /**
+     * @param token          sent with every request but batch creates and deletes, which need the {@code WC} role
+     * @param workCoachToken sent with batch creates and deletes
+     */
+    LoadClient(
+            final String baseUrl,
+            final int concurrency,
+            final ObjectMapper mapper,
+            final ObjectNode template,
+            final String token,
+            final String workCoachToken
+    ) {
+        this.httpClient = HttpClients.custom()
+                .setMaxConnPerRoute(concurrency)
+                .setMaxConnTotal(concurrency)
+                .disableCookieManagement()
+                .build();
+        this.baseUrl = baseUrl;
+        this.mapper = mapper;
+        this.jsonReader = mapper.readerFor(JsonNode.class);
+        this.jsonWriter = mapper.writerFor(JsonNode.class);
+        this.template = template;
+        this.token = token;
+        this.workCoachToken = workCoachToken;
+    }
+
+    /**
+     * Creates the claim circumstances through the batch create endpoint.
+     */
+    List<Claim> seed(final int rows, final int batchSize) throws IOException {
+        final List<Claim> claims = new ArrayList<>(rows);
+        while (claims.size() < rows) {
+            final List<JsonNode> batch = new ArrayList<>();
+            for (int i = claims.size(); i < rows && batch.size() < batchSize; i++) {
+                batch.add(body(UUID.randomUUID(), template.get("dateOfClaim")));
+            }
+            final HttpPost post = new HttpPost(baseUrl + "/citizens/claims/batch-create");
+            final Response response = send(withBody(post, mapper.valueToTree(batch)), workCoachToken);
+            if (response.status == HttpStatus.SC_UNAUTHORIZED || response.status == HttpStatus.SC_FORBIDDEN) {
+                throw new IllegalStateException("Seeding failed with status " + response.status
+                        + "; check loadtest.jwt.role-claim names the claim the security library reads the role from");
+            }
+            if (response.status != HttpStatus.SC_OK) {
+                throw new IllegalStateException("Seeding failed with status " + response.status + ": "
+                        + new String(response.body, StandardCharsets.UTF_8));
+            }
+            for (JsonNode result : jsonReader.readTree(response.body).path("success").path(0).path("data")) {
+                if (!CircumstancesCreateResult.Status.CREATED.name().equals(result.path("status").asText())) {
+                    throw new IllegalStateException("Seeding failed: " + result);
+                }
+                claims.add(new Claim(UUID.fromString(result.get("id").asText()),
+                        UUID.fromString(result.get("claimantId").asText())));
+            }
+        }
+        return claims;
+    }
+
+    int getById(final UUID id) throws IOException {
+        return send(new HttpGet(baseUrl + "/claim/" + id), token).status;
+    }
+
+    int getByClaimantId(final UUID claimantId) throws IOException {
+        return send(new HttpGet(baseUrl + "/citizen/" + claimantId + "/claim"), token).status;
+    }
+
+    /**
+     * @return the response, which {@link #createdId(Response)} reads the id of the new circumstances from
+     */
+    Response create(final UUID claimantId) throws IOException {
+        final HttpPost post = new HttpPost(baseUrl + "/citizen/" + claimantId + "/claim");
+        return send(withBody(post, body(claimantId, template.get("dateOfClaim"))), token);
+    }
+
+    int update(final Claim claim, final int dayOffset) throws IOException {
+        final LocalDate dateOfClaim = LocalDate.parse(template.get("dateOfClaim").asText())
+                .minusDays(dayOffset % DATE_RANGE_DAYS);
+        final HttpPatch patch = new HttpPatch(baseUrl + "/claim/" + claim.getId());
+        return send(withBody(patch, body(claim.getClaimantId(), TextNode.valueOf(dateOfClaim.toString()))),
+                token).status;
+    }
+
+    int delete(final UUID id) throws IOException {
+        return send(new HttpDelete(baseUrl + "/claim/" + id), workCoachToken).status;
+    }
+
+    UUID createdId(final Response created) throws IOException {
+        return UUID.fromString(jsonReader.readTree(created.body).path("success").path(0).path("data").asText());
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private ObjectNode body(final UUID claimantId, final JsonNode dateOfClaim) {
+        final ObjectNode body = template.deepCopy();
+        body.put("claimantId", claimantId.toString());
+        body.set("dateOfClaim", dateOfClaim);
+        return body;
+    }
+
+    private HttpUriRequest withBody(final HttpEntityEnclosingRequestBase request, final JsonNode body)
+            throws IOException {
+        request.setEntity(new ByteArrayEntity(jsonWriter.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    private Response send(final HttpUriRequest request, final String bearerToken) throws IOException {
+        request.setHeader(HttpHeaders.AUTHORIZATION, BEARER + bearerToken);
+        final HttpResponse response = httpClient.execute(request);
+        try {
+            final int status = response.getStatusLine().getStatusCode();
+            return new Response(status,
+                    response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity()));
+        } finally {
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+
+    static final class Claim {
+        private final UUID id;
+        private final UUID claimantId;
+
+        Claim(final UUID id, final UUID claimantId) {
+            this.id = id;
+            this.claimantId = claimantId;
+        }
+
+        UUID getId() {
+            return id;
+        }
+
+        UUID getClaimantId() {
+            return claimantId;
+        }
+    }
+
+    static final class Response {
+        private final int status;
+        private final byte[] body;
+
+        private Response(final int status, final byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+}
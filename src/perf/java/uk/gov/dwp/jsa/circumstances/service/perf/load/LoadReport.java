@@ -0,0 +1,68 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints throughput, error rate and latency percentiles per endpoint, and writes each endpoint's latency
+ * histogram as an HdrHistogram percentile distribution ({@code <endpoint>.hgrm}, in milliseconds) that the
+ * HdrHistogram plotter can chart and compare between runs.
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double PERCENT = 100d;
+    private static final String ROW = "%-36s %9s %9s %8s %9s %9s %9s %9s %9s%n";
+    private static final String VALUES = "%-36s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n";
+
+    private final Map<Endpoint, EndpointStats> stats;
+    private final Duration duration;
+
+    LoadReport(final Map<Endpoint, EndpointStats> stats, final Duration duration) {
+        this.stats = stats;
+        this.duration = duration;
+    }
+
+    void print(final PrintStream out) {
+        final double seconds = duration.toMillis() / (double) TimeUnit.SECONDS.toMillis(1);
+        out.printf(ROW, "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms",
+                "max ms");
+        final EndpointStats total = new EndpointStats();
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            print(out, entry.getKey().getDescription(), entry.getValue(), seconds);
+            total.add(entry.getValue());
+        }
+        print(out, "all", total, seconds);
+    }
+
+    void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey().getKey() + ".hgrm")), false, "UTF-8")) {
+                entry.getValue().getLatencies().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static void print(final PrintStream out, final String name, final EndpointStats stats,
+                              final double seconds) {
+        final Histogram latencies = stats.getLatencies();
+        final long requests = stats.getRequests();
+        out.printf(VALUES, name, requests, requests / seconds,
+                requests == 0 ? 0d : PERCENT * stats.getErrors() / requests,
+                millis(latencies, 50d), millis(latencies, 90d), millis(latencies, 99d), millis(latencies, 99.9d),
+                latencies.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static double millis(final Histogram latencies, final double percentile) {
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,239 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.gov.dwp.jsa.circumstances.service.AppInfo;
+import uk.gov.dwp.jsa.circumstances.service.Application;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.perf.Fixtures;
+import uk.gov.dwp.jsa.circumstances.service.perf.PerfDatabase;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the whole service against an embedded Postgres, seeds claim circumstances through the batch create
+ * endpoint and drives a mix of gets, creates, updates and deletes at {@code CircumstancesController} from a
+ * fixed number of clients, each sending its next request as soon as the last one is answered. Requests are
+ * authenticated with tokens signed by a key generated for the run, so nothing outside the JVM is needed.
+ * <p>
+ * Gets and updates go to the seeded circumstances; a client deletes only circumstances it created itself and
+ * creates instead when it has none left. Latencies are measured from the moment a client sends a request, so
+ * with a closed loop like this a stall shows in the maximum and the tail but holds back the requests that would
+ * have been sent during it. See {@link LoadTestSettings} for the settings and {@link LoadReport} for the output.
+ */
+public final class LoadTest {
+
+    private static final String CLIENT_ROLE = "CCA";
+    private static final String WORK_COACH_ROLE = "WC";
+    private static final int DATE_RANGE_DAYS = 365;
+    private static final int CREATED = 201;
+    private static final int OK = 200;
+    private static final int CLIENT_ERROR = 400;
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+        final JwtSigner signer = JwtSigner.generate(mapper);
+        final Duration validity = settings.getWarmup().plus(settings.getDuration()).plusHours(1);
+
+        try (PerfDatabase database = PerfDatabase.start();
+             PerfDatabase replica = settings.isReplica() ? PerfDatabase.start() : null;
+             ConfigurableApplicationContext application = start(database, replica, signer);
+             LoadClient client = new LoadClient(baseUrl(application), settings.getConcurrency(), mapper,
+                     template(mapper),
+                     signer.token(settings.getRoleClaim(), CLIENT_ROLE, validity),
+                     signer.token(settings.getRoleClaim(), WORK_COACH_ROLE, validity))) {
+            final int batchSize = application.getEnvironment()
+                    .getRequiredProperty("circumstances.batch.max-size", Integer.class);
+            final List<LoadClient.Claim> claims = client.seed(settings.getRows(), batchSize);
+            checkClientRole(settings, client, claims.get(0));
+            if (replica != null) {
+                database.copyClaimCircumstancesTo(replica);
+            }
+            System.out.printf("Seeded %d claim circumstances, running %d clients for %s after a %s warm up%n",
+                    claims.size(), settings.getConcurrency(), settings.getDuration(), settings.getWarmup());
+
+            final LoadReport report = new LoadReport(run(settings, client, claims), settings.getDuration());
+            report.print(System.out);
+            report.write(settings.getOutput());
+            System.out.println("Latency histograms written to " + settings.getOutput().toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(
+            final PerfDatabase database,
+            final PerfDatabase replica,
+            final JwtSigner signer
+    ) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("circumstances.db.url", database.jdbcUrl());
+        properties.put("circumstances.db.login", PerfDatabase.USER);
+        properties.put("circumstances.db.password", PerfDatabase.USER);
+        properties.put("circumstances.db.schema", "circumstances_schema");
+        properties.put("services.publicKey", signer.publicKey());
+        if (replica != null) {
+            properties.put("circumstances.db.replica.enabled", true);
+            properties.put("circumstances.db.replica.url", replica.jdbcUrl());
+            properties.put("circumstances.db.replica.login", PerfDatabase.USER);
+            properties.put("circumstances.db.replica.password", PerfDatabase.USER);
+            // the seeded circumstances were just written, and would be read from the primary for a whole read
+            // your writes window; the copy is never behind, so a short window keeps it in use. These are set in
+            // application.properties, which takes precedence over the properties above
+            System.setProperty("circumstances.db.replica.max-lag", "PT1S");
+            System.setProperty("circumstances.db.replica.read-your-writes-window", "PT2S");
+        }
+        properties.put("logging.level.uk.gov.dwp.jsa", "WARN");
+        // devtools is on the test classpath, and its restarts would run the load test twice
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(Application.class).properties(properties).run();
+    }
+
+    /**
+     * Seeding has shown the work coach token is honoured; an update needs the client role too, so one is sent
+     * before anything is recorded rather than measuring a run of 403s.
+     */
+    private static void checkClientRole(
+            final LoadTestSettings settings,
+            final LoadClient client,
+            final LoadClient.Claim claim
+    ) throws IOException {
+        final int status = client.update(claim, 0);
+        if (status != OK) {
+            throw new IllegalStateException("An update with the " + CLIENT_ROLE + " token failed with status "
+                    + status + "; check loadtest.jwt.role-claim (" + settings.getRoleClaim()
+                    + ") names the claim the security library reads the role from");
+        }
+    }
+
+    private static String baseUrl(final ConfigurableApplicationContext application) {
+        return "http://localhost:" + application.getEnvironment().getRequiredProperty("local.server.port")
+                + "/nsjsa/" + application.getBean(AppInfo.class).getVersion();
+    }
+
+    private static ObjectNode template(final ObjectMapper mapper) throws IOException {
+        final ObjectNode template = mapper.valueToTree(Fixtures.request(mapper, Fixtures.TYPICAL));
+        template.remove("id");
+        return template;
+    }
+
+    private static Map<Endpoint, EndpointStats> run(
+            final LoadTestSettings settings,
+            final LoadClient client,
+            final List<LoadClient.Claim> claims
+    ) throws Exception {
+        final Endpoint[] wheel = wheel(settings.getMix());
+        final long measureFrom = System.nanoTime() + settings.getWarmup().toNanos();
+        final long end = measureFrom + settings.getDuration().toNanos();
+
+        final ExecutorService clients = Executors.newFixedThreadPool(settings.getConcurrency());
+        try {
+            final List<Future<Map<Endpoint, EndpointStats>>> results = new ArrayList<>();
+            for (int i = 0; i < settings.getConcurrency(); i++) {
+                results.add(clients.submit(() -> drive(client, claims, wheel, measureFrom, end)));
+            }
+            final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+            for (Future<Map<Endpoint, EndpointStats>> result : results) {
+                for (Map.Entry<Endpoint, EndpointStats> entry : result.get().entrySet()) {
+                    stats.computeIfAbsent(entry.getKey(), endpoint -> new EndpointStats()).add(entry.getValue());
+                }
+            }
+            return stats;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Each endpoint appears as many times as its weight, so a uniformly random slot picks it in proportion.
+     */
+    private static Endpoint[] wheel(final Map<Endpoint, Integer> mix) {
+        final List<Endpoint> wheel = new ArrayList<>();
+        for (Map.Entry<Endpoint, Integer> weight : mix.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                wheel.add(weight.getKey());
+            }
+        }
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("The endpoint mix has no weight");
+        }
+        return wheel.toArray(new Endpoint[0]);
+    }
+
+    private static Map<Endpoint, EndpointStats> drive(
+            final LoadClient client,
+            final List<LoadClient.Claim> claims,
+            final Endpoint[] wheel,
+            final long measureFrom,
+            final long end
+    ) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        final Deque<UUID> created = new ArrayDeque<>();
+        for (long start = System.nanoTime(); start < end && !Thread.currentThread().isInterrupted();
+             start = System.nanoTime()) {
+            Endpoint endpoint = wheel[random.nextInt(wheel.length)];
+            if (endpoint == Endpoint.DELETE && created.isEmpty()) {
+                endpoint = Endpoint.CREATE;
+            }
+            final LoadClient.Claim claim = claims.get(random.nextInt(claims.size()));
+            LoadClient.Response createResponse = null;
+            int status;
+            try {
+                switch (endpoint) {
+                    case GET_BY_ID:
+                        status = client.getById(claim.getId());
+                        break;
+                    case GET_BY_CLAIMANT:
+                        status = client.getByClaimantId(claim.getClaimantId());
+                        break;
+                    case CREATE:
+                        createResponse = client.create(UUID.randomUUID());
+                        status = createResponse.getStatus();
+                        break;
+                    case UPDATE:
+                        status = client.update(claim, random.nextInt(DATE_RANGE_DAYS));
+                        break;
+                    case DELETE:
+                        status = client.delete(created.pop());
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown endpoint " + endpoint);
+                }
+            } catch (IOException e) {
+                status = -1;
+            }
+            final long latency = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                stats.computeIfAbsent(endpoint, key -> new EndpointStats())
+                        .record(latency, status < 0 || status >= CLIENT_ERROR);
+            }
+            if (createResponse != null && status == CREATED) {
+                try {
+                    created.push(client.createdId(createResponse));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read the id of the created circumstances", e);
+                }
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,126 @@
+package uk.gov.dwp.jsa.circumstances.service.perf.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties:
+ * <ul>
+ * <li>{@code rows}: claim circumstances seeded before the run, 10000 by default</li>
+ * <li>{@code concurrency}: clients sending requests back to back, 16 by default</li>
+ * <li>{@code warmup} and {@code duration}: ISO-8601 durations of the unrecorded warm up and of the recorded
+ * run, {@code PT10S} and {@code PT60S} by default</li>
+ * <li>{@code mix}: weights of the endpoints, such as {@code get-by-id=80,update=20}; endpoints left out get
+ * no traffic</li>
+ * <li>{@code jwt.role-claim}: the token claim carrying the role, {@code role} by default. The security library
+ * is not configurable here, so this has to match it; the run stops before recording if either token is refused</li>
+ * <li>{@code output}: directory the histograms are written to, {@code target/loadtest} by default</li>
+ * <li>{@code replica}: whether read-only transactions go to a second embedded Postgres, false by default. It is
+ * not a streaming replica: the seeded circumstances are copied to it once, so it exercises the routing and the
+ * replica pool but reads from it do not see later writes</li>
+ * </ul>
+ */
+final class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    private final int rows;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<Endpoint, Integer> mix;
+    private final String roleClaim;
+    private final Path output;
+    private final boolean replica;
+
+    private LoadTestSettings(
+            final int rows,
+            final int concurrency,
+            final Duration warmup,
+            final Duration duration,
+            final Map<Endpoint, Integer> mix,
+            final String roleClaim,
+            final Path output,
+            final boolean replica
+    ) {
+        this.rows = rows;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.mix = Collections.unmodifiableMap(mix);
+        this.roleClaim = roleClaim;
+        this.output = output;
+        this.replica = replica;
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rows", "10000")),
+                Integer.parseInt(property("concurrency", "16")),
+                Duration.parse(property("warmup", "PT10S")),
+                Duration.parse(property("duration", "PT60S")),
+                parseMix(System.getProperty(PREFIX + "mix")),
+                property("jwt.role-claim", "role"),
+                Paths.get(property("output", "target/loadtest")),
+                Boolean.parseBoolean(property("replica", "false"))
+        );
+    }
+
+    private static String property(final String name, final String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(final String mix) {
+        final Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        if (mix == null) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                weights.put(endpoint, endpoint.getDefaultWeight());
+            }
+            return weights;
+        }
+        for (String entry : mix.split(",")) {
+            final String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected <endpoint>=<weight> in " + PREFIX + "mix: " + entry);
+            }
+            weights.put(Endpoint.forKey(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Map<Endpoint, Integer> getMix() {
+        return mix;
+    }
+
+    String getRoleClaim() {
+        return roleClaim;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    boolean isReplica() {
+        return replica;
+    }
+}
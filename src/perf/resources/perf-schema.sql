@@ -0,0 +1,27 @@
+create schema if not exists circumstances_schema;
+
+-- the tables as they stand once db/changelog/changelog.sql has run and the old claimant_id and hash columns are gone
+create table circumstances_schema.claim_circumstances (
+    id uuid not null primary key,
+    claimant_uuid uuid not null unique,
+    claim_circumstances_json jsonb,
+    created_timestamp timestamp,
+    updated_timestamp timestamp,
+    hash_digest bytea,
+    source varchar(255),
+    service_version varchar(255),
+    locale varchar(255),
+    encrypted_json boolean not null default false
+);
+
+create index claim_circumstances_updated_timestamp_id_idx
+    on circumstances_schema.claim_circumstances (updated_timestamp, id);
+
+create table circumstances_schema.claim_circumstances_tombstone (
+    id uuid not null primary key,
+    claimant_uuid uuid,
+    deleted_timestamp timestamp not null
+);
+
+create index claim_circumstances_tombstone_deleted_timestamp_id_idx
+    on circumstances_schema.claim_circumstances_tombstone (deleted_timestamp, id);
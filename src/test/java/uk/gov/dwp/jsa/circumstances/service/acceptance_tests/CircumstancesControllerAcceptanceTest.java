@@ -6,9 +6,11 @@ import org.jooq.tools.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -18,30 +20,67 @@ import uk.gov.dwp.jsa.adaptors.http.api.ApiError;
 import uk.gov.dwp.jsa.adaptors.http.api.ApiResponse;
 import uk.gov.dwp.jsa.adaptors.http.api.ApiSuccess;
 import uk.gov.dwp.jsa.circumstances.service.AppInfo;
+import uk.gov.dwp.jsa.circumstances.service.cache.CacheInvalidationListener;
+import uk.gov.dwp.jsa.circumstances.service.cache.CacheInvalidationPublisher;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCache;
+import uk.gov.dwp.jsa.circumstances.service.changes.ChangeFeed;
+import uk.gov.dwp.jsa.circumstances.service.changes.TombstonePurge;
 import uk.gov.dwp.jsa.circumstances.service.config.WithVersionUriComponentsBuilder;
 import uk.gov.dwp.jsa.circumstances.service.controllers.CircumstancesController;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.BackgroundWorkRejectedException;
 import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesAlreadyExistsException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesModifiedException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesNotFoundException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidChangesRequestException;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetrics;
+import uk.gov.dwp.jsa.circumstances.service.migration.EncryptionMigration;
+import uk.gov.dwp.jsa.circumstances.service.migration.MigrationJobs;
 import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChanges;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesMetadata;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
+import uk.gov.dwp.jsa.circumstances.service.repositories.SchemaCheck;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesBatch;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesExportService;
 import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesService;
+import uk.gov.dwp.jsa.circumstances.service.services.ExportRange;
 import uk.gov.dwp.jsa.security.WithMockUser;
 import uk.gov.dwp.jsa.security.roles.Role;
 
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -59,6 +98,12 @@ public class CircumstancesControllerAcceptanceTest {
     private static final URI VALID_CLAIM_BY_ID_URL = URI.create(URI_BASE + "/claim/" + VALID_CLAIM_CIRCUMSTANCES_ID);
     private static final URI VALID_CLAIM_BY_ID_URL_WITH_VERSION = URI.create(URI_BASE + "/v1/claim/" + VALID_CLAIM_CIRCUMSTANCES_ID);
     private static final URI UNKNOWN_CLAIM_BY_ID_URL = URI.create(URI_BASE + "/claim/" + UUID.randomUUID());
+    private static final URI BATCH_GET_URL = URI.create(URI_BASE + "/claims/batch-get");
+    private static final URI CLAIMANT_BATCH_GET_URL = URI.create(URI_BASE + "/citizens/claims/batch-get");
+    private static final URI BATCH_DELETE_URL = URI.create(URI_BASE + "/claims/batch-delete");
+    private static final URI BATCH_CREATE_URL = URI.create(URI_BASE + "/citizens/claims/batch-create");
+    private static final String EXPORT_URL = URI_BASE + "/claims/export";
+    private static final URI CHANGES_URL = URI.create(URI_BASE + "/changes");
 
     private static final CircumstancesRequest CIRCUMSTANCES_REQUEST = getCircumstancesRequest();
 
@@ -66,6 +111,8 @@ public class CircumstancesControllerAcceptanceTest {
 
     private static final CircumstancesResponse CIRCUMSTANCES_RESPONSE = new CircumstancesResponse(CIRCUMSTANCES);
 
+    private static final CircumstancesMetadata CIRCUMSTANCES_METADATA = buildCircumstancesMetadata();
+
     private static final ApiSuccess<CircumstancesResponse> CIRCUMSTANCES_API_SUCCESS =
             new ApiSuccess<>(VALID_CLAIM_BY_ID_URL, CIRCUMSTANCES_RESPONSE);
 
@@ -89,6 +136,39 @@ public class CircumstancesControllerAcceptanceTest {
     @MockBean
     private CircumstancesService service;
 
+    @MockBean
+    private CircumstancesCache cache;
+
+    @MockBean
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @MockBean
+    private CacheInvalidationListener cacheInvalidationListener;
+
+    @MockBean
+    private EncryptionMigration encryptionMigration;
+
+    @MockBean
+    private MigrationJobs migrationJobs;
+
+    @MockBean
+    private CircumstancesMetrics metrics;
+
+    @MockBean
+    private CircumstancesReader reader;
+
+    @MockBean
+    private SchemaCheck schemaCheck;
+
+    @MockBean
+    private CircumstancesExportService exportService;
+
+    @MockBean
+    private ChangeFeed changeFeed;
+
+    @MockBean
+    private TombstonePurge tombstonePurge;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -159,6 +239,80 @@ public class CircumstancesControllerAcceptanceTest {
                 .andExpect(status().isOk());
     }
 
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenStoredHash_Get_ShouldReturnStrongETag() throws Exception {
+        final ClaimCircumstances claimCircumstances =
+                new ClaimCircumstances(VALID_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST, "v1");
+        claimCircumstances.setHash("hash");
+        when(service.getCircumstancesById(VALID_CLAIM_CIRCUMSTANCES_ID))
+                .thenReturn(new CircumstancesResponse(claimCircumstances));
+
+        mockMvc.perform(get(VALID_CLAIM_BY_ID_URL))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash\""))
+                .andExpect(content().string(not(containsString("hash"))))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenMatchingIfNoneMatch_Get_ShouldReturnNotModifiedWithoutLoadingCircumstances() throws Exception {
+        when(service.getMetadataByClaimantId(VALID_CLAIMANT_ID)).thenReturn(CIRCUMSTANCES_METADATA);
+
+        mockMvc.perform(get(CLAIMANT_BASE_URL).header(HttpHeaders.IF_NONE_MATCH, "\"hash\""))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash\""))
+                .andExpect(content().string(""))
+                .andExpect(status().isNotModified());
+
+        verify(service, never()).getCircumstancesByClaimantId(any());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenStaleIfNoneMatch_Get_ShouldReturnCircumstances() throws Exception {
+        when(service.getMetadataById(VALID_CLAIM_CIRCUMSTANCES_ID)).thenReturn(CIRCUMSTANCES_METADATA);
+
+        mockMvc.perform(get(VALID_CLAIM_BY_ID_URL).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(content().json(toJson(CIRCUMSTANCES_RESPONSE_API_SUCCESS)))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.SCA)
+    @Test
+    public void GivenValidClaimId_Head_ShouldReturnOkWithoutBody() throws Exception {
+        when(service.existsById(VALID_CLAIM_CIRCUMSTANCES_ID)).thenReturn(true);
+
+        mockMvc.perform(head(VALID_CLAIM_BY_ID_URL))
+                .andExpect(content().string(""))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.SCA)
+    @Test
+    public void GivenUnknownClaimantId_Head_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(head(UNKNOWN_CLAIMANT_URL))
+                .andExpect(status().isNotFound());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenValidClaimantId_Metadata_ShouldReturnCircumstancesMetadata() throws Exception {
+        final URI metadataUrl = URI.create(CLAIMANT_BASE_URL + "/metadata");
+        when(service.getMetadataByClaimantId(VALID_CLAIMANT_ID)).thenReturn(CIRCUMSTANCES_METADATA);
+
+        mockMvc.perform(get(metadataUrl))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(metadataUrl, CIRCUMSTANCES_METADATA))))))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenUnknownClaimId_Metadata_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get(UNKNOWN_CLAIM_BY_ID_URL + "/metadata"))
+                .andExpect(status().isNotFound());
+    }
+
     @WithMockUser(role = Role.WC)
     @Test
     public void GivenUnvalidClaimId_ShouldReturnNotFound() throws Exception {
@@ -168,6 +322,55 @@ public class CircumstancesControllerAcceptanceTest {
                 .andExpect(status().isNotFound());
     }
 
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenClaimIds_BatchGet_ShouldReturnCircumstancesKeyedById() throws Exception {
+        final UUID unknownClaimId = UUID.randomUUID();
+        final List<UUID> ids = Arrays.asList(VALID_CLAIM_CIRCUMSTANCES_ID, unknownClaimId);
+        final Map<UUID, CircumstancesResponse> circumstancesById = new LinkedHashMap<>();
+        circumstancesById.put(VALID_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_RESPONSE);
+        circumstancesById.put(unknownClaimId, null);
+        when(service.getCircumstancesByIds(ids)).thenReturn(
+                new CircumstancesBatch(ids, ClaimCircumstances::getId, Collections.singletonList(CIRCUMSTANCES)));
+
+        mockMvc.perform(post(BATCH_GET_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(ids)))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(BATCH_GET_URL, circumstancesById))))))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenNoClaimIds_BatchGet_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post(BATCH_GET_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(Collections.emptyList())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(role = Role.SCA)
+    @Test
+    public void GivenClaimantIds_BatchGet_ShouldReturnCircumstancesKeyedByClaimant() throws Exception {
+        final List<UUID> claimantIds = Arrays.asList(VALID_CLAIMANT_ID, UNKNOWN_CLAIMANT_ID);
+        final Map<UUID, CircumstancesResponse> circumstancesByClaimantId = new LinkedHashMap<>();
+        circumstancesByClaimantId.put(VALID_CLAIMANT_ID, CIRCUMSTANCES_RESPONSE);
+        circumstancesByClaimantId.put(UNKNOWN_CLAIMANT_ID, null);
+        when(service.getCircumstancesByClaimantIds(claimantIds)).thenReturn(
+                new CircumstancesBatch(claimantIds, c -> VALID_CLAIMANT_ID, Collections.singletonList(CIRCUMSTANCES)));
+
+        mockMvc.perform(post(CLAIMANT_BATCH_GET_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(claimantIds)))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(CLAIMANT_BATCH_GET_URL, circumstancesByClaimantId))))))
+                .andExpect(status().isOk());
+    }
+
     @WithMockUser(role = Role.CCM)
     @Test
     public void GivenValidClaimantId_ShouldReturnCircumstancesResponseList() throws Exception {
@@ -189,6 +392,7 @@ public class CircumstancesControllerAcceptanceTest {
     @WithMockUser(role = Role.WC)
     @Test
     public void testGivenValidIdShouldDeleteAndReturnExpectedURL() throws Exception {
+        when(service.delete(VALID_CLAIM_CIRCUMSTANCES_ID)).thenReturn(true);
         mockMvc.perform(delete(VALID_CLAIM_BY_ID_URL)
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON))
@@ -206,6 +410,51 @@ public class CircumstancesControllerAcceptanceTest {
                 .andExpect(status().isNotFound());
     }
 
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenClaimIds_BatchDelete_ShouldReturnDeletedCount() throws Exception {
+        final List<UUID> ids = Arrays.asList(VALID_CLAIM_CIRCUMSTANCES_ID, UUID.randomUUID());
+        when(service.deleteByIds(ids)).thenReturn(1);
+
+        mockMvc.perform(post(BATCH_DELETE_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(ids)))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(BATCH_DELETE_URL, 1))))))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser
+    @Test
+    public void GivenCitizen_BatchCreate_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post(BATCH_CREATE_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(Collections.singletonList(getCircumstancesRequest()))))
+                .andExpect(status().isForbidden());
+        verify(service, never()).saveAll(any());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenRequests_BatchCreate_ShouldReturnAResultPerRequest() throws Exception {
+        final CircumstancesRequest request = getCircumstancesRequest();
+        request.setClaimantId(VALID_CLAIMANT_ID);
+        final List<CircumstancesCreateResult> results = Arrays.asList(
+                CircumstancesCreateResult.created(VALID_CLAIMANT_ID, VALID_CLAIM_CIRCUMSTANCES_ID),
+                CircumstancesCreateResult.conflict(VALID_CLAIMANT_ID));
+        when(service.saveAll(any())).thenReturn(results);
+
+        mockMvc.perform(post(BATCH_CREATE_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(Arrays.asList(request, request))))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(BATCH_CREATE_URL, results))))))
+                .andExpect(status().isOk());
+    }
+
     @WithMockUser(role = Role.CCM)
     @Test
     public void GivenValidAndPopulatedRequest_ShouldUpdateClaimantRecordAndReturnExpectedURL() throws Exception {
@@ -217,6 +466,166 @@ public class CircumstancesControllerAcceptanceTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void GivenFullBackgroundExecutor_UpdateExistingData_ShouldReturnServiceUnavailable() throws Exception {
+        when(service.saveEncrypted(any(Integer.class))).thenThrow(BackgroundWorkRejectedException.class);
+
+        mockMvc.perform(post(URI_BASE + "/existingdata/update")
+                .with(csrf()))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(
+                        HttpStatus.SERVICE_UNAVAILABLE.toString(), "Too much background work in progress")))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void GivenZeroBatchLimit_UpdateExistingData_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post(URI_BASE + "/existingdata/update/0")
+                .with(csrf()))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(
+                        HttpStatus.BAD_REQUEST.toString(), "Batch limit must be at least 1")))))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).saveEncrypted(any(Integer.class));
+    }
+
+    @WithMockUser
+    @Test
+    public void GivenCitizen_MigrationJobEndpoints_ShouldBeForbidden() throws Exception {
+        final String jobUrl = URI_BASE + "/existingdata/jobs/" + UUID.randomUUID();
+
+        mockMvc.perform(get(jobUrl)).andExpect(status().isForbidden());
+        mockMvc.perform(post(jobUrl + "/pause").with(csrf())).andExpect(status().isForbidden());
+        mockMvc.perform(post(jobUrl + "/resume").with(csrf())).andExpect(status().isForbidden());
+        mockMvc.perform(post(jobUrl + "/cancel").with(csrf())).andExpect(status().isForbidden());
+        verify(service, never()).getMigrationJob(any());
+        verify(service, never()).pauseMigrationJob(any());
+        verify(service, never()).resumeMigrationJob(any());
+        verify(service, never()).cancelMigrationJob(any());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenWorkCoachAndUnknownJob_GetMigrationJob_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get(URI_BASE + "/existingdata/jobs/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenCursor_Changes_ShouldReturnThePageOfChanges() throws Exception {
+        final CircumstancesChanges changes = new CircumstancesChanges(Collections.singletonList(
+                new CircumstancesChange(VALID_CLAIM_CIRCUMSTANCES_ID, VALID_CLAIMANT_ID, null,
+                        LocalDateTime.of(2020, 1, 1, 0, 0), true)), "next", false);
+        when(changeFeed.changesSince("since", 10)).thenReturn(changes);
+
+        mockMvc.perform(get(CHANGES_URL)
+                .param("since", "since")
+                .param("limit", "10"))
+                .andExpect(content().json(toJson(new ApiResponse<>(Collections.singletonList(
+                        new ApiSuccess<>(CHANGES_URL, changes))))))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenInvalidCursor_Changes_ShouldReturnBadRequest() throws Exception {
+        when(changeFeed.changesSince("bad", null)).thenThrow(InvalidChangesRequestException.class);
+
+        mockMvc.perform(get(CHANGES_URL)
+                .param("since", "bad"))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(HttpStatus.BAD_REQUEST.toString(),
+                        "Changes cursor must come from an earlier page and limit must be within range")))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser
+    @Test
+    public void GivenCitizen_Changes_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get(CHANGES_URL))
+                .andExpect(status().isForbidden());
+        verify(changeFeed, never()).changesSince(any(), any());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenUpdatedRange_Export_ShouldStreamNdjson() throws Exception {
+        final ArgumentCaptor<ExportRange> range = ArgumentCaptor.forClass(ExportRange.class);
+        doAnswer(invocation -> {
+            final OutputStream out = invocation.getArgument(1);
+            out.write("{\"a\":1}\n{\"a\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(exportService).export(range.capture(), any());
+
+        mockMvc.perform(get(EXPORT_URL)
+                .param("from", "2020-01-01T00:00:00")
+                .param("to", "2020-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString("application/x-ndjson")))
+                .andExpect(content().string("{\"a\":1}\n{\"a\":2}\n"));
+        assertFalse(range.getValue().isByCreated());
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), range.getValue().getFrom());
+        assertEquals(LocalDateTime.of(2020, 2, 1, 0, 0), range.getValue().getTo());
+    }
+
+    @WithMockUser(role = Role.WC)
+    @Test
+    public void GivenFromAfterTo_Export_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(EXPORT_URL)
+                .param("timestamp", ExportRange.CREATED)
+                .param("from", "2020-02-01T00:00:00")
+                .param("to", "2020-01-01T00:00:00"))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(HttpStatus.BAD_REQUEST.toString(),
+                        "Export timestamp must be created or updated, and from must be before to")))))
+                .andExpect(status().isBadRequest());
+        verify(exportService, never()).export(any(), any());
+    }
+
+    @WithMockUser
+    @Test
+    public void GivenCitizen_Export_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get(EXPORT_URL))
+                .andExpect(status().isForbidden());
+        verify(exportService, never()).export(any(), any());
+    }
+
+    @WithMockUser(role = Role.CCA)
+    @Test
+    public void GivenCcaRole_Export_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get(EXPORT_URL))
+                .andExpect(status().isForbidden());
+        verify(exportService, never()).export(any(), any());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenStaleIfMatch_Update_ShouldReturnPreconditionFailed() throws Exception {
+        when(service.updateIfMatch(eq(VALID_CLAIM_CIRCUMSTANCES_ID), any(), eq("\"stale\"")))
+                .thenThrow(CircumstancesModifiedException.class);
+
+        mockMvc.perform(patch(VALID_CLAIM_BY_ID_URL)
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(CIRCUMSTANCES_REQUEST)))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(
+                        HttpStatus.PRECONDITION_FAILED.toString(), "Circumstances have been modified")))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @WithMockUser(role = Role.CCM)
+    @Test
+    public void GivenUnknownId_Update_ShouldReturnNotFound() throws Exception {
+        when(service.updateIfMatch(eq(VALID_CLAIM_CIRCUMSTANCES_ID), any(), any()))
+                .thenThrow(CircumstancesNotFoundException.class);
+
+        mockMvc.perform(patch(VALID_CLAIM_BY_ID_URL)
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJson(CIRCUMSTANCES_REQUEST)))
+                .andExpect(content().json(toJson(new ApiResponse<>(new ApiError(
+                        HttpStatus.NOT_FOUND.toString(), HttpStatus.NOT_FOUND.getReasonPhrase())))))
+                .andExpect(status().isNotFound());
+    }
+
     @WithMockUser(role = Role.CCM)
     @Test
     public void GivenRequestMissingClaimStartDate_ShouldReturnBadRequest() throws Exception {
@@ -247,6 +656,13 @@ public class CircumstancesControllerAcceptanceTest {
         return mapper.writeValueAsString(objectToConverted);
     }
 
+    private static CircumstancesMetadata buildCircumstancesMetadata() {
+        final ClaimCircumstances claimCircumstances = new ClaimCircumstances(VALID_CLAIM_CIRCUMSTANCES_ID, null, "v1");
+        claimCircumstances.setClaimantId(VALID_CLAIMANT_ID);
+        claimCircumstances.setHash("hash");
+        return new CircumstancesMetadata(claimCircumstances);
+    }
+
     private static CircumstancesRequest getCircumstancesRequest() {
         final CircumstancesRequest circumstancesRequest = new CircumstancesRequest();
         final LocalDate now = LocalDate.now();
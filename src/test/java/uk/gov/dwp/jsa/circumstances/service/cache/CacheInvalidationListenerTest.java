@@ -0,0 +1,219 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheInvalidationListenerTest {
+
+    private static final String LOCAL_NODE = "local";
+    private static final String REMOTE_NODE = "remote";
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+
+    @Mock
+    private CircumstancesCache cache;
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    @Mock
+    private RecentWrites recentWrites;
+
+    private final CircumstancesCacheProperties properties = new CircumstancesCacheProperties();
+
+    private final MutableClock clock = new MutableClock();
+
+    private CacheInvalidationListener sut;
+
+    @Before
+    public void setUp() {
+        when(publisher.getNodeId()).thenReturn(LOCAL_NODE);
+        sut = new CacheInvalidationListener(cache, publisher, recentWrites, new DataSourceProperties(),
+                properties, clock);
+    }
+
+    @Test
+    public void givenRemoteNotification_handle_ShouldEvictLocally() {
+        sut.handle(payload(REMOTE_NODE, 1));
+
+        verify(cache).evictLocally(Collections.singletonList(ID), Collections.singletonList(CLAIMANT_ID));
+        verify(cache, never()).evictAllLocally();
+    }
+
+    @Test
+    public void givenRemoteNotification_handle_ShouldRecordTheRemoteWrites() {
+        sut.handle(payload(REMOTE_NODE, 1));
+
+        verify(recentWrites).recordAll(Collections.singletonList(ID), Collections.singletonList(CLAIMANT_ID));
+        verify(recentWrites, never()).recordEverything();
+    }
+
+    @Test
+    public void givenOwnNotification_handle_ShouldIgnoreIt() {
+        sut.handle(payload(LOCAL_NODE, 1));
+
+        verifyZeroInteractions(cache);
+    }
+
+    @Test
+    public void givenConsecutiveSequences_handle_ShouldNotFlush() {
+        sut.handle(payload(REMOTE_NODE, 4));
+        sut.handle(payload(REMOTE_NODE, 5));
+
+        verify(cache, never()).evictAllLocally();
+    }
+
+    @Test
+    public void givenSequencesDeliveredOutOfOrder_handle_ShouldEvictBothWithoutFlushing() {
+        UUID later = UUID.randomUUID();
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 3, later));
+        sut.handle(payload(REMOTE_NODE, 2));
+        clock.advance(properties.getInvalidation().getGapTimeout().plusSeconds(1));
+        sut.checkForMissedInvalidations();
+
+        verify(cache).evictLocally(Collections.singletonList(later), Collections.singletonList(CLAIMANT_ID));
+        verify(cache, times(2)).evictLocally(Collections.singletonList(ID), Collections.singletonList(CLAIMANT_ID));
+        verify(cache, never()).evictAllLocally();
+        verify(recentWrites, never()).recordEverything();
+    }
+
+    @Test
+    public void givenSkippedSequenceWithinTheGapTimeout_checkForMissedInvalidations_ShouldNotFlush() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 3));
+        clock.advance(properties.getInvalidation().getGapTimeout());
+
+        sut.checkForMissedInvalidations();
+
+        verify(cache, never()).evictAllLocally();
+    }
+
+    @Test
+    public void givenSkippedSequenceNeverArrives_checkForMissedInvalidations_ShouldFlushOnce() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 3));
+        clock.advance(properties.getInvalidation().getGapTimeout().plusSeconds(1));
+
+        sut.checkForMissedInvalidations();
+        sut.checkForMissedInvalidations();
+
+        verify(cache).evictAllLocally();
+        verify(recentWrites).recordEverything();
+    }
+
+    @Test
+    public void givenAbandonedSequence_handle_ShouldFillTheGapWithoutEvicting() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 3));
+        sut.handle(new CacheInvalidationMessage(REMOTE_NODE, 2, Collections.emptyList(), Collections.emptyList())
+                .toPayload());
+        clock.advance(properties.getInvalidation().getGapTimeout().plusSeconds(1));
+        sut.checkForMissedInvalidations();
+
+        verify(cache, times(2)).evictLocally(any(), any());
+        verify(cache, never()).evictAllLocally();
+    }
+
+    @Test
+    public void givenTooManySkippedSequences_handle_ShouldFlushStraightAway() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 5000));
+
+        verify(cache).evictAllLocally();
+        verify(recentWrites).recordEverything();
+    }
+
+    @Test
+    public void givenNodeSilentPastItsExpiry_checkForMissedInvalidations_ShouldForgetIt() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload("other", 1));
+        clock.advance(properties.getInvalidation().getNodeExpiry());
+        sut.handle(payload("other", 2));
+        clock.advance(Duration.ofSeconds(1));
+
+        sut.checkForMissedInvalidations();
+
+        assertEquals(1, sut.knownNodes());
+    }
+
+    @Test
+    public void givenLateSequence_handle_ShouldEvictWithoutFlushing() {
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 2));
+        sut.handle(payload(REMOTE_NODE, 1));
+        sut.handle(payload(REMOTE_NODE, 3));
+
+        verify(cache, never()).evictAllLocally();
+    }
+
+    @Test
+    public void givenUnreadablePayload_handle_ShouldFlush() {
+        sut.handle("garbage");
+
+        verify(cache).evictAllLocally();
+        verify(recentWrites).recordEverything();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenInvalidChannel_ShouldFailToStart() {
+        CircumstancesCacheProperties invalid = new CircumstancesCacheProperties();
+        invalid.getInvalidation().setChannel("bad channel; drop table");
+        new CacheInvalidationListener(cache, publisher, recentWrites, new DataSourceProperties(), invalid);
+    }
+
+    private static String payload(final String nodeId, final long sequence) {
+        return payload(nodeId, sequence, ID);
+    }
+
+    private static String payload(final String nodeId, final long sequence, final UUID id) {
+        return new CacheInvalidationMessage(nodeId, sequence, Collections.singletonList(id),
+                Collections.singletonList(CLAIMANT_ID)).toPayload();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
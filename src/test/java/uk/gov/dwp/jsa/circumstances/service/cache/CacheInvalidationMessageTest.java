@@ -0,0 +1,51 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CacheInvalidationMessageTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID OTHER_ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+
+    @Test
+    public void payload_should_round_trip() {
+        CacheInvalidationMessage message = new CacheInvalidationMessage("node", 7,
+                Arrays.asList(ID, OTHER_ID), Collections.singletonList(CLAIMANT_ID));
+
+        CacheInvalidationMessage read = CacheInvalidationMessage.fromPayload(message.toPayload());
+
+        assertEquals("node", read.getNodeId());
+        assertEquals(7, read.getSequence());
+        assertEquals(Arrays.asList(ID, OTHER_ID), read.getIds());
+        assertEquals(Collections.singletonList(CLAIMANT_ID), read.getClaimantIds());
+    }
+
+    @Test
+    public void payload_without_claimants_should_round_trip() {
+        CacheInvalidationMessage message = new CacheInvalidationMessage("node", 1,
+                Collections.singletonList(ID), Collections.emptyList());
+
+        CacheInvalidationMessage read = CacheInvalidationMessage.fromPayload(message.toPayload());
+
+        assertEquals(Collections.singletonList(ID), read.getIds());
+        assertTrue(read.getClaimantIds().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed_payload_should_fail() {
+        CacheInvalidationMessage.fromPayload("node|1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformed_id_should_fail() {
+        CacheInvalidationMessage.fromPayload("node|1|not-a-uuid|");
+    }
+}
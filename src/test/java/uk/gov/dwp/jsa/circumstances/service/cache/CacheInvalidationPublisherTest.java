@@ -0,0 +1,174 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheInvalidationPublisherTest {
+
+    private static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+    private static final String CHANNEL = "circumstances_cache";
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+    private static final int NOTIFY_PAYLOAD_LIMIT_BYTES = 8000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CacheInvalidationPublisher sut;
+
+    @Before
+    public void setUp() {
+        sut = new CacheInvalidationPublisher(jdbcTemplate, new CircumstancesCacheProperties());
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void givenNoTransaction_publish_ShouldNotifyStraightAway() {
+        sut.publish(Collections.singletonList(ID), Collections.singletonList(CLAIMANT_ID));
+
+        CacheInvalidationMessage message = CacheInvalidationMessage.fromPayload(captureNotifications(1).get(0));
+        assertEquals(sut.getNodeId(), message.getNodeId());
+        assertEquals(1, message.getSequence());
+        assertEquals(Collections.singletonList(ID), message.getIds());
+        assertEquals(Collections.singletonList(CLAIMANT_ID), message.getClaimantIds());
+    }
+
+    @Test
+    public void givenTransaction_publish_ShouldNotifyBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        sut.publish(Collections.singletonList(ID), Collections.emptyList());
+        verifyZeroInteractions(jdbcTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+        captureNotifications(1);
+    }
+
+    @Test
+    public void givenRolledBackTransaction_takeAbandoned_ShouldVoidItsSequences() {
+        TransactionSynchronizationManager.initSynchronization();
+        sut.publish(Collections.singletonList(ID), Collections.emptyList());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        List<CacheInvalidationMessage> abandoned = sut.takeAbandoned();
+        assertEquals(1, abandoned.size());
+        assertEquals(1, abandoned.get(0).getSequence());
+        assertTrue(abandoned.get(0).getIds().isEmpty());
+        assertTrue(sut.takeAbandoned().isEmpty());
+    }
+
+    @Test
+    public void givenCommittedTransaction_takeAbandoned_ShouldBeEmpty() {
+        TransactionSynchronizationManager.initSynchronization();
+        sut.publish(Collections.singletonList(ID), Collections.emptyList());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertTrue(sut.takeAbandoned().isEmpty());
+    }
+
+    @Test
+    public void givenNotifyFails_publish_ShouldVoidTheSequence() {
+        doThrow(new DataAccessResourceFailureException("down")).when(jdbcTemplate)
+                .query(anyString(), any(RowCallbackHandler.class), any(), any());
+
+        try {
+            sut.publish(Collections.singletonList(ID), Collections.emptyList());
+            fail();
+        } catch (DataAccessResourceFailureException e) {
+            assertEquals(1, sut.takeAbandoned().get(0).getSequence());
+        }
+    }
+
+    @Test
+    public void givenManyIds_publish_ShouldSplitThemOverNotificationsWithConsecutiveSequences() {
+        List<UUID> ids = IntStream.range(0, 301).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+
+        sut.publish(ids, Collections.singletonList(CLAIMANT_ID));
+
+        List<CacheInvalidationMessage> messages = captureNotifications(3).stream()
+                .map(CacheInvalidationMessage::fromPayload)
+                .collect(Collectors.toList());
+        assertEquals(ids, messages.stream().flatMap(m -> m.getIds().stream()).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(CLAIMANT_ID),
+                messages.stream().flatMap(m -> m.getClaimantIds().stream()).collect(Collectors.toList()));
+        assertEquals(3, messages.get(2).getSequence());
+    }
+
+    @Test
+    public void givenManyIdsAndClaimantIds_publish_ShouldKeepEveryPayloadUnderTheNotifyLimit() {
+        List<UUID> ids = IntStream.range(0, 400).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+        List<UUID> claimantIds = IntStream.range(0, 400).mapToObj(i -> UUID.randomUUID())
+                .collect(Collectors.toList());
+
+        sut.publish(ids, claimantIds);
+
+        List<String> payloads = captureNotifications(6);
+        payloads.forEach(payload ->
+                assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < NOTIFY_PAYLOAD_LIMIT_BYTES));
+        List<CacheInvalidationMessage> messages = payloads.stream()
+                .map(CacheInvalidationMessage::fromPayload)
+                .collect(Collectors.toList());
+        assertEquals(ids, messages.stream().flatMap(m -> m.getIds().stream()).collect(Collectors.toList()));
+        assertEquals(claimantIds,
+                messages.stream().flatMap(m -> m.getClaimantIds().stream()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void givenDisabledInvalidation_publish_ShouldNotNotify() {
+        CircumstancesCacheProperties properties = new CircumstancesCacheProperties();
+        properties.getInvalidation().setEnabled(false);
+        sut = new CacheInvalidationPublisher(jdbcTemplate, properties);
+
+        sut.publish(Collections.singletonList(ID), Collections.emptyList());
+
+        verifyZeroInteractions(jdbcTemplate);
+    }
+
+    private List<String> captureNotifications(final int count) {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(count)).query(eq(NOTIFY_SQL), any(RowCallbackHandler.class), eq(CHANNEL),
+                payloads.capture());
+        return payloads.getAllValues();
+    }
+}
@@ -0,0 +1,165 @@
+package uk.gov.dwp.jsa.circumstances.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class CircumstancesCacheTest {
+
+    private static final UUID CLAIM_CIRCUMSTANCES_ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+    private static final String HASH = "hash";
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<UUID, CircumstancesResponse> loader = key -> {
+        loads.incrementAndGet();
+        return buildCircumstancesResponse();
+    };
+
+    private final CacheInvalidationPublisher publisher = mock(CacheInvalidationPublisher.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircumstancesCache sut;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new CircumstancesCache(new CircumstancesCacheProperties(),
+                new ServiceObjectMapperProvider().get(), publisher, meterRegistry);
+    }
+
+    @Test
+    public void givenCachedCircumstances_getById_ShouldNotLoadAgain() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        CircumstancesResponse cached = sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(CLAIM_CIRCUMSTANCES_ID, cached.getId());
+        assertEquals(CLAIMANT_ID, cached.getClaimantId());
+        assertEquals(LocalDate.of(2020, 1, 2), cached.getDateOfClaim());
+        assertEquals(HASH, cached.getHash());
+    }
+
+    @Test
+    public void givenCachedCircumstances_getById_ShouldReturnTheLoadedResponseItself() {
+        CircumstancesResponse loaded = sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertSame(loaded, sut.getById(CLAIM_CIRCUMSTANCES_ID, loader));
+        assertSame(loaded, sut.getByClaimantId(CLAIMANT_ID, loader));
+    }
+
+    @Test
+    public void givenCachedCircumstances_getByClaimantId_ShouldUseTheClaimantIndex() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        CircumstancesResponse cached = sut.getByClaimantId(CLAIMANT_ID, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(CLAIM_CIRCUMSTANCES_ID, cached.getId());
+    }
+
+    @Test
+    public void givenUnknownCircumstances_getById_ShouldNotCacheTheMiss() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertNull(sut.getById(CLAIM_CIRCUMSTANCES_ID, key -> null));
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void givenEvictedCircumstances_getById_ShouldLoadAgain() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        sut.evict(CLAIM_CIRCUMSTANCES_ID, CLAIMANT_ID);
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        sut.evictAll(Collections.singletonList(CLAIM_CIRCUMSTANCES_ID));
+        sut.getByClaimantId(CLAIMANT_ID, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void givenEviction_evict_ShouldPublishItToTheOtherNodes() {
+        sut.evict(CLAIM_CIRCUMSTANCES_ID, CLAIMANT_ID);
+        sut.evictAll(Collections.singletonList(CLAIM_CIRCUMSTANCES_ID));
+
+        verify(publisher).publish(Collections.singletonList(CLAIM_CIRCUMSTANCES_ID),
+                Collections.singletonList(CLAIMANT_ID));
+        verify(publisher).publish(Collections.singletonList(CLAIM_CIRCUMSTANCES_ID), Collections.emptyList());
+    }
+
+    @Test
+    public void givenRemoteEviction_evictLocally_ShouldLoadAgainWithoutPublishing() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        sut.evictLocally(Collections.emptyList(), Collections.singletonList(CLAIMANT_ID));
+        sut.getByClaimantId(CLAIMANT_ID, loader);
+        sut.evictAllLocally();
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertEquals(3, loads.get());
+        verifyZeroInteractions(publisher);
+    }
+
+    @Test
+    public void givenEvictionDuringLoad_getById_ShouldNotCacheTheLoadedCircumstances() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, key -> {
+            sut.evict(CLAIM_CIRCUMSTANCES_ID, CLAIMANT_ID);
+            return loader.apply(key);
+        });
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void givenDisabledCache_getById_ShouldAlwaysLoad() {
+        CircumstancesCacheProperties properties = new CircumstancesCacheProperties();
+        properties.setEnabled(false);
+        sut = new CircumstancesCache(properties, new ServiceObjectMapperProvider().get(), publisher, meterRegistry);
+
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void cacheStatistics_ShouldBeRegistered() {
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+        sut.getById(CLAIM_CIRCUMSTANCES_ID, loader);
+
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "circumstances").meter());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "circumstances")
+                .tag("result", "hit").functionCounter().count(), 0);
+        assertNotNull(meterRegistry.find("cache.size").tag("cache", "circumstances.claimants").meter());
+    }
+
+    private static CircumstancesResponse buildCircumstancesResponse() {
+        CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(CLAIMANT_ID);
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        ClaimCircumstances claimCircumstances = new ClaimCircumstances(CLAIM_CIRCUMSTANCES_ID, request, "v1");
+        claimCircumstances.setHash(HASH);
+        return new CircumstancesResponse(claimCircumstances);
+    }
+}
@@ -0,0 +1,115 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidChangesRequestException;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChanges;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+import uk.gov.dwp.jsa.circumstances.service.replica.ReplicaProperties;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChangeFeedTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2020, 1, 1, 0, 0, 0, 123_456_000);
+
+    @Mock
+    private CircumstancesReader reader;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ChangeFeedProperties properties = new ChangeFeedProperties();
+
+    private ChangeFeed sut;
+
+    @Before
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        sut = new ChangeFeed(reader, new RecentWrites(new ReplicaProperties()), properties, transactionManager);
+    }
+
+    @Test
+    public void givenNoCursor_Changes_ShouldStartFromTheBeginningWithTheDefaultLimit() {
+        when(reader.findChanges(any(), any(), any(), anyInt())).thenReturn(Collections.emptyList());
+
+        CircumstancesChanges changes = sut.changesSince(null, null);
+
+        verify(reader).findChanges(eq(ChangeCursor.START.getTimestamp()), eq(ChangeCursor.START.getId()), any(),
+                eq(properties.getDefaultLimit()));
+        assertTrue(changes.getChanges().isEmpty());
+        assertEquals(ChangeCursor.START.encode(), changes.getNext());
+        assertFalse(changes.isMore());
+    }
+
+    @Test
+    public void givenAFullPage_Changes_ShouldPointAfterTheLastChangeAndSayThereMayBeMore() {
+        CircumstancesChange first = change(TIMESTAMP);
+        CircumstancesChange last = change(TIMESTAMP.plusSeconds(1));
+        when(reader.findChanges(any(), any(), any(), eq(2))).thenReturn(Arrays.asList(first, last));
+
+        CircumstancesChanges changes = sut.changesSince(null, 2);
+
+        assertTrue(changes.isMore());
+        ChangeCursor next = ChangeCursor.decode(changes.getNext());
+        assertEquals(last.getTimestamp(), next.getTimestamp());
+        assertEquals(last.getId(), next.getId());
+    }
+
+    @Test
+    public void givenACursor_Changes_ShouldReadAfterItAndHoldBackUnsettledChanges() {
+        CircumstancesChange change = change(TIMESTAMP);
+        when(reader.findChanges(any(), any(), any(), anyInt())).thenReturn(Collections.emptyList());
+        String since = ChangeCursor.after(change).encode();
+
+        CircumstancesChanges changes = sut.changesSince(since, 10);
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reader).findChanges(eq(TIMESTAMP), eq(change.getId()), before.capture(), eq(10));
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minus(properties.getSettleDelay())
+                .plus(Duration.ofSeconds(1))));
+        assertEquals(since, changes.getNext());
+    }
+
+    @Test(expected = InvalidChangesRequestException.class)
+    public void givenACursorTheFeedDidNotMake_Changes_ShouldBeRejected() {
+        sut.changesSince("not a cursor", null);
+    }
+
+    @Test(expected = InvalidChangesRequestException.class)
+    public void givenALimitAboveTheMaximum_Changes_ShouldBeRejected() {
+        sut.changesSince(null, properties.getMaxLimit() + 1);
+    }
+
+    @Test(expected = InvalidChangesRequestException.class)
+    public void givenANonPositiveLimit_Changes_ShouldBeRejected() {
+        sut.changesSince(null, 0);
+    }
+
+    private static CircumstancesChange change(final LocalDateTime timestamp) {
+        return new CircumstancesChange(UUID.randomUUID(), UUID.randomUUID(), "00ff", timestamp, false);
+    }
+}
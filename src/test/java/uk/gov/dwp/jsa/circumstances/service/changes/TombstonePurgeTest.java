@@ -0,0 +1,68 @@
+package uk.gov.dwp.jsa.circumstances.service.changes;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import uk.gov.dwp.jsa.circumstances.service.async.AsyncProperties;
+import uk.gov.dwp.jsa.circumstances.service.async.BackgroundConnections;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TombstonePurgeTest {
+
+    private static final Instant NOW = Instant.parse("2020-03-31T12:00:00Z");
+
+    @Mock
+    private CircumstancesRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ChangeFeedProperties properties = new ChangeFeedProperties();
+
+    private TombstonePurge sut;
+
+    @Before
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        properties.setTombstoneRetention(Duration.ofDays(30));
+        sut = new TombstonePurge(repository, transactionManager, new BackgroundConnections(new AsyncProperties()),
+                properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void givenTombstonesOlderThanTheRetention_Purge_ShouldDeleteThemBatchByBatch() throws Exception {
+        LocalDateTime before = LocalDateTime.of(2020, 3, 1, 12, 0);
+        when(repository.deleteTombstonesBefore(before, TombstonePurge.BATCH_SIZE))
+                .thenReturn(TombstonePurge.BATCH_SIZE, TombstonePurge.BATCH_SIZE, 3);
+
+        assertEquals(2 * TombstonePurge.BATCH_SIZE + 3, sut.purge());
+
+        verify(repository, times(3)).deleteTombstonesBefore(before, TombstonePurge.BATCH_SIZE);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    public void givenNoTombstonesToPurge_Purge_ShouldStopAfterOneBatch() throws Exception {
+        assertEquals(0, sut.purge());
+
+        verify(repository).deleteTombstonesBefore(any(), any(Integer.class));
+    }
+}
@@ -1,15 +1,27 @@
 package uk.gov.dwp.jsa.circumstances.service.config;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
 
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -30,4 +42,51 @@ public class ServiceObjectMapperProviderTest {
         assertThat(mapper.getDateFormat(), is(instanceOf(EXPECTED_MAPPER.getDateFormat().getClass())));
     }
 
+    @Test
+    public void objectMapperProviderShouldReturnTheSameMapperEveryTime() {
+        assertThat(new ServiceObjectMapperProvider().get(), is(sameInstance(new ServiceObjectMapperProvider().get())));
+    }
+
+    @Test
+    public void objectMapperShouldRegisterTheModulesOnTheClasspath() {
+        ObjectMapper mapper = ServiceObjectMapperProvider.create(false);
+        assertThat(mapper.getRegisteredModuleIds(), hasItem(JavaTimeModule.class.getName()));
+    }
+
+    @Test
+    public void objectMapperShouldLeaveAfterburnerOutByDefault() {
+        ObjectMapper mapper = ServiceObjectMapperProvider.fromSystemProperties();
+        assertThat(mapper.getRegisteredModuleIds(), not(hasItem(AfterburnerModule.class.getName())));
+    }
+
+    @Test
+    public void givenAfterburnerProperty_ObjectMapper_ShouldRoundTripCircumstancesLikeTheDefaultMapper()
+            throws Exception {
+        ObjectMapper mapper;
+        System.setProperty(ServiceObjectMapperProvider.AFTERBURNER_PROPERTY, "true");
+        try {
+            mapper = ServiceObjectMapperProvider.fromSystemProperties();
+        } finally {
+            System.clearProperty(ServiceObjectMapperProvider.AFTERBURNER_PROPERTY);
+        }
+        assertThat(mapper.getRegisteredModuleIds(), hasItem(AfterburnerModule.class.getName()));
+
+        CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(UUID.randomUUID());
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        request.setClaimStartDate(LocalDate.of(2020, 1, 6));
+        ClaimCircumstances claimCircumstances = new ClaimCircumstances(UUID.randomUUID(), request, "v1");
+        claimCircumstances.setHash("00ff");
+        CircumstancesResponse response = new CircumstancesResponse(claimCircumstances);
+        ObjectMapper defaultMapper = ServiceObjectMapperProvider.create(false);
+
+        JsonNode expected = defaultMapper.valueToTree(response);
+        byte[] json = mapper.writerFor(CircumstancesResponse.class).writeValueAsBytes(response);
+        CircumstancesResponse readBack = mapper.readerFor(CircumstancesResponse.class).readValue(json);
+
+        JsonNode readBackTree = defaultMapper.valueToTree(readBack);
+
+        assertThat(mapper.readTree(json), is(expected));
+        assertThat(readBackTree, is(expected));
+    }
 }
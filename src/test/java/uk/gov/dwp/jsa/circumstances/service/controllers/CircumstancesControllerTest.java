@@ -7,6 +7,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -15,21 +16,34 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import uk.gov.dwp.jsa.adaptors.http.api.ApiResponse;
 import uk.gov.dwp.jsa.circumstances.service.AppInfo;
+import uk.gov.dwp.jsa.circumstances.service.changes.ChangeFeed;
 import uk.gov.dwp.jsa.circumstances.service.config.WithVersionUriComponentsBuilder;
 import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesAlreadyExistsException;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesMetadata;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.models.http.MigrationJobResponse;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesBatch;
+import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesExportService;
 import uk.gov.dwp.jsa.circumstances.service.services.CircumstancesService;
 import uk.gov.dwp.jsa.circumstances.service.services.ResponseBuilder;
 
 import javax.servlet.http.HttpServletRequest;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,6 +59,8 @@ public class CircumstancesControllerTest {
     private static final String BASE_URL = "/nsjsa/claim/";
     private static final String NSJSA_CITIZEN_BASE_GET_URL = "http://localhost" + BASE_URL + EXPECTED_CLAIM_CIRCUMSTANCES_ID;
     private static final URI EXPECTED_RETURN_URL = URI.create(NSJSA_CITIZEN_BASE_GET_URL);
+    private static final int MAX_BATCH_SIZE = 2;
+    private static final UUID MIGRATION_JOB_ID = UUID.randomUUID();
 
     private static final ResponseEntity<ApiResponse<UUID>> EXPECTED_RESPONSE_FOR_CREATE = new ResponseBuilder<UUID>()
             .withStatus(HttpStatus.CREATED)
@@ -72,12 +88,24 @@ public class CircumstancesControllerTest {
     @Mock
     private CircumstancesService circumstancesService;
 
+    @Mock
+    private CircumstancesExportService exportService;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
     @Mock
     private CircumstancesRequest circumstancesRequest;
 
     @Mock
     private CircumstancesResponse circumstancesResponseMock;
 
+    @Mock
+    private CircumstancesMetadata circumstancesMetadataMock;
+
+    @Mock
+    private MigrationJobResponse migrationJobResponseMock;
+
     @Mock
     private HttpServletRequest httpServletRequest;
 
@@ -89,7 +117,8 @@ public class CircumstancesControllerTest {
     public void setUp() {
         when(appInfo.getVersion()).thenReturn(StringUtils.EMPTY);
         RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
-        sut = new CircumstancesController(circumstancesService, new WithVersionUriComponentsBuilder(appInfo));
+        sut = new CircumstancesController(circumstancesService, exportService, changeFeed,
+                new WithVersionUriComponentsBuilder(appInfo), MAX_BATCH_SIZE);
         when(circumstancesService.save(any())).thenReturn(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
         when(circumstancesService.getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(circumstancesResponseMock);
         when(circumstancesService.getCircumstancesByClaimantId(VALID_CLAIMANT_ID)).thenReturn(circumstancesResponseMock);
@@ -122,6 +151,129 @@ public class CircumstancesControllerTest {
 
     }
 
+    @Test
+    public void givenMatchingIfNoneMatch_getClaimCircumstancesById_ShouldReturn304WithoutLoadingCircumstances() {
+        when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"hash\"");
+        when(circumstancesMetadataMock.getHash()).thenReturn("hash");
+        when(circumstancesService.getMetadataById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(circumstancesMetadataMock);
+
+        ResponseEntity<ApiResponse<CircumstancesResponse>> response =
+                sut.getClaimCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID, httpServletRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"hash\"", response.getHeaders().getETag());
+        verify(circumstancesService, never()).getCircumstancesById(any());
+    }
+
+    @Test
+    public void givenStaleIfNoneMatch_getClaimCircumstancesByClaimantId_ShouldReturnCircumstancesWithETag() {
+        when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"stale\"");
+        when(circumstancesMetadataMock.getHash()).thenReturn("hash");
+        when(circumstancesResponseMock.getHash()).thenReturn("hash");
+        when(circumstancesService.getMetadataByClaimantId(VALID_CLAIMANT_ID)).thenReturn(circumstancesMetadataMock);
+
+        ResponseEntity<ApiResponse<CircumstancesResponse>> response =
+                sut.getClaimCircumstancesByClaimantId(VALID_CLAIMANT_ID, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"hash\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void givenExistingClaimId_claimCircumstancesExist_ShouldReturnOk() {
+        when(circumstancesService.existsById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(true);
+        assertEquals(HttpStatus.OK, sut.claimCircumstancesExist(EXPECTED_CLAIM_CIRCUMSTANCES_ID).getStatusCode());
+    }
+
+    @Test
+    public void givenUnknownClaimId_claimCircumstancesExist_ShouldReturn404() {
+        assertEquals(HttpStatus.NOT_FOUND, sut.claimCircumstancesExist(UNKNOWN_CLAIM_CIRCUMSTANCES_ID).getStatusCode());
+    }
+
+    @Test
+    public void givenUnknownClaimantId_claimantCircumstancesExist_ShouldReturn404() {
+        assertEquals(HttpStatus.NOT_FOUND, sut.claimantCircumstancesExist(UNKNOWN_CLAIMANT_ID).getStatusCode());
+    }
+
+    @Test
+    public void givenValidClaimId_getClaimCircumstancesMetadataById_ShouldReturnMetadata() {
+        when(circumstancesService.getMetadataById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(circumstancesMetadataMock);
+
+        ResponseEntity<ApiResponse<CircumstancesMetadata>> response =
+                sut.getClaimCircumstancesMetadataById(EXPECTED_CLAIM_CIRCUMSTANCES_ID, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(circumstancesMetadataMock, response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenUnknownClaimantId_getClaimCircumstancesMetadataByClaimantId_ShouldReturn404() {
+        ResponseEntity<ApiResponse<CircumstancesMetadata>> response =
+                sut.getClaimCircumstancesMetadataByClaimantId(UNKNOWN_CLAIMANT_ID, httpServletRequest);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void givenClaimIds_getClaimCircumstancesByIds_ShouldReturnCircumstancesKeyedById() {
+        final List<UUID> ids = Arrays.asList(EXPECTED_CLAIM_CIRCUMSTANCES_ID, UNKNOWN_CLAIM_CIRCUMSTANCES_ID);
+        final CircumstancesBatch circumstancesById = new CircumstancesBatch(ids, ClaimCircumstances::getId,
+                Collections.emptyList());
+        when(circumstancesService.getCircumstancesByIds(ids)).thenReturn(circumstancesById);
+
+        ResponseEntity<ApiResponse<CircumstancesBatch>> response =
+                sut.getClaimCircumstancesByIds(ids, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(circumstancesById, response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenTooManyClaimIds_getClaimCircumstancesByIds_ShouldReturnBadRequest() {
+        final List<UUID> ids = Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        ResponseEntity<ApiResponse<CircumstancesBatch>> response =
+                sut.getClaimCircumstancesByIds(ids, httpServletRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), response.getBody().getError().getCode());
+        verify(circumstancesService, never()).getCircumstancesByIds(anyCollection());
+    }
+
+    @Test
+    public void givenNoClaimIds_getClaimCircumstancesByIds_ShouldReturnBadRequest() {
+        ResponseEntity<ApiResponse<CircumstancesBatch>> response =
+                sut.getClaimCircumstancesByIds(Collections.emptyList(), httpServletRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(circumstancesService, never()).getCircumstancesByIds(anyCollection());
+    }
+
+    @Test
+    public void givenClaimantIds_getClaimCircumstancesByClaimantIds_ShouldReturnCircumstancesKeyedByClaimant() {
+        final List<UUID> claimantIds = Arrays.asList(VALID_CLAIMANT_ID, UNKNOWN_CLAIMANT_ID);
+        final CircumstancesBatch circumstancesByClaimantId =
+                new CircumstancesBatch(claimantIds, ClaimCircumstances::getClaimantId, Collections.emptyList());
+        when(circumstancesService.getCircumstancesByClaimantIds(claimantIds)).thenReturn(circumstancesByClaimantId);
+
+        ResponseEntity<ApiResponse<CircumstancesBatch>> response =
+                sut.getClaimCircumstancesByClaimantIds(claimantIds, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(circumstancesByClaimantId, response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenTooManyClaimantIds_getClaimCircumstancesByClaimantIds_ShouldReturnBadRequest() {
+        final List<UUID> claimantIds = Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        ResponseEntity<ApiResponse<CircumstancesBatch>> response =
+                sut.getClaimCircumstancesByClaimantIds(claimantIds, httpServletRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(circumstancesService, never()).getCircumstancesByClaimantIds(anyCollection());
+    }
+
     @Test
     public void givenValidClaimantId_getClaimCircumstancesById_ShouldReturnCircumstancesInformation() {
         ResponseEntity<ApiResponse<CircumstancesResponse>> circumstancesResponse =
@@ -157,6 +309,7 @@ public class CircumstancesControllerTest {
 
     @Test
     public void testGivenValidIdDeleteShouldReturnExpectedUrl() {
+        when(circumstancesService.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(true);
         ResponseEntity<ApiResponse<UUID>> uriResponseEntity = sut.deleteById(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
         assertEquals(EXPECTED_DELETE_RESPONSE.getStatusCode(), uriResponseEntity.getStatusCode());
         assertEquals(EXPECTED_DELETE_RESPONSE.getBody().getSuccess().get(0).getPath(), uriResponseEntity.getBody().getSuccess().get(0).getPath());
@@ -171,33 +324,149 @@ public class CircumstancesControllerTest {
         assertEquals(EXPECTED_UNSUCCESSFUL_DELETE_RESPONSE.getBody().getError().getMessage(), uriResponseEntity.getBody().getError().getMessage());
     }
 
+    @Test
+    public void testGivenValidIdDeleteShouldNotLoadTheCircumstances() {
+        when(circumstancesService.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(true);
+        sut.deleteById(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
+        verify(circumstancesService, never()).getCircumstancesById(any());
+    }
+
+    @Test
+    public void givenClaimIds_deleteByIds_ShouldReturnDeletedCount() {
+        List<UUID> ids = Arrays.asList(EXPECTED_CLAIM_CIRCUMSTANCES_ID, UNKNOWN_CLAIM_CIRCUMSTANCES_ID);
+        when(circumstancesService.deleteByIds(ids)).thenReturn(1);
+
+        ResponseEntity<ApiResponse<Integer>> response = sut.deleteByIds(ids, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Integer.valueOf(1), response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenTooManyClaimIds_deleteByIds_ShouldReturnBadRequest() {
+        List<UUID> ids = Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        ResponseEntity<ApiResponse<Integer>> response = sut.deleteByIds(ids, httpServletRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(circumstancesService, never()).deleteByIds(any());
+    }
+
+    @Test
+    public void givenRequests_createClaimCircumstancesBatch_ShouldReturnAResultPerRequest() {
+        List<CircumstancesRequest> requests = Arrays.asList(circumstancesRequest, circumstancesRequest);
+        List<CircumstancesCreateResult> results = Arrays.asList(
+                CircumstancesCreateResult.created(VALID_CLAIMANT_ID, EXPECTED_CLAIM_CIRCUMSTANCES_ID),
+                CircumstancesCreateResult.conflict(VALID_CLAIMANT_ID));
+        when(circumstancesService.saveAll(requests)).thenReturn(results);
+
+        ResponseEntity<ApiResponse<List<CircumstancesCreateResult>>> response =
+                sut.createClaimCircumstancesBatch(requests, httpServletRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenTooManyRequests_createClaimCircumstancesBatch_ShouldReturnBadRequest() {
+        List<CircumstancesRequest> requests = Arrays.asList(circumstancesRequest, circumstancesRequest,
+                circumstancesRequest);
+
+        ResponseEntity<ApiResponse<List<CircumstancesCreateResult>>> response =
+                sut.createClaimCircumstancesBatch(requests, httpServletRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(circumstancesService, never()).saveAll(any());
+    }
+
     @Test
     public void givenValidRequest_Update_ShouldReturnExpectedUrl() {
         ResponseEntity<ApiResponse<UUID>> uriResponseEntity =
-                sut.updateClaimCircumstances(EXPECTED_CLAIM_CIRCUMSTANCES_ID,
+                sut.updateClaimCircumstances(EXPECTED_CLAIM_CIRCUMSTANCES_ID, null,
                         circumstancesRequest);
         assertEquals(EXPECTED_RESPONSE_FOR_GET.getStatusCode(), uriResponseEntity.getStatusCode());
         assertEquals(EXPECTED_RESPONSE_FOR_CREATE.getBody().getSuccess().get(0).getPath(), uriResponseEntity.getBody().getSuccess().get(0).getPath());
         assertEquals(EXPECTED_RESPONSE_FOR_CREATE.getBody().getSuccess().get(0).getData(), uriResponseEntity.getBody().getSuccess().get(0).getData());
     }
 
+    @Test
+    public void givenIfMatch_Update_ShouldPassItOnAndReturnTheNewETag() {
+        when(circumstancesService.updateIfMatch(EXPECTED_CLAIM_CIRCUMSTANCES_ID, circumstancesRequest, "\"old\""))
+                .thenReturn("new");
+
+        ResponseEntity<ApiResponse<UUID>> uriResponseEntity =
+                sut.updateClaimCircumstances(EXPECTED_CLAIM_CIRCUMSTANCES_ID, "\"old\"", circumstancesRequest);
+
+        assertEquals(HttpStatus.OK, uriResponseEntity.getStatusCode());
+        assertEquals("\"new\"", uriResponseEntity.getHeaders().getETag());
+    }
+
     @Test
     public void givenValidRequest_UpdateExistingData_WithBatchLimit_ShouldCallSaveEncrypted() {
         Integer batchLimit = 3;
-        sut.updateExistingData(batchLimit);
+        when(circumstancesService.saveEncrypted(anyInt())).thenReturn(migrationJobResponseMock);
+        when(migrationJobResponseMock.getId()).thenReturn(MIGRATION_JOB_ID);
+        ResponseEntity<ApiResponse<MigrationJobResponse>> response = sut.updateExistingData(batchLimit);
         ArgumentCaptor<Integer> captor = ArgumentCaptor.forClass(Integer.class);
         verify(circumstancesService).saveEncrypted(captor.capture());
         assertThat(captor.getValue(), is(batchLimit));
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(migrationJobResponseMock, response.getBody().getSuccess().get(0).getData());
+        assertEquals("/nsjsa/existingdata/jobs/" + MIGRATION_JOB_ID,
+                response.getBody().getSuccess().get(0).getPath().toString());
     }
 
     @Test
     public void givenValidRequest_UpdateExistingData_WithoutBatchLimit_ShouldCallSaveEncrypted() {
         Integer batchLimit = null;
+        when(circumstancesService.saveEncrypted(anyInt())).thenReturn(migrationJobResponseMock);
+        when(migrationJobResponseMock.getId()).thenReturn(MIGRATION_JOB_ID);
         sut.updateExistingData(batchLimit);
         ArgumentCaptor<Integer> captor = ArgumentCaptor.forClass(Integer.class);
         verify(circumstancesService).saveEncrypted(captor.capture());
         assertThat(captor.getValue(), is(ReflectionTestUtils.getField(sut.getClass(), "BATCH_LIMIT")));
     }
 
+    @Test
+    public void givenBatchLimitBelowOne_UpdateExistingData_ShouldReturnBadRequest() {
+        for (Integer batchLimit : Arrays.asList(0, -1)) {
+            ResponseEntity<ApiResponse<MigrationJobResponse>> response = sut.updateExistingData(batchLimit);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST.toString(), response.getBody().getError().getCode());
+        }
+        verify(circumstancesService, never()).saveEncrypted(anyInt());
+    }
+
+    @Test
+    public void givenKnownJob_GetMigrationJob_ShouldReturnItsProgress() {
+        when(circumstancesService.getMigrationJob(MIGRATION_JOB_ID)).thenReturn(migrationJobResponseMock);
+
+        ResponseEntity<ApiResponse<MigrationJobResponse>> response = sut.getMigrationJob(MIGRATION_JOB_ID);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(migrationJobResponseMock, response.getBody().getSuccess().get(0).getData());
+    }
+
+    @Test
+    public void givenUnknownJob_GetMigrationJob_ShouldReturnNotFound() {
+        ResponseEntity<ApiResponse<MigrationJobResponse>> response = sut.getMigrationJob(MIGRATION_JOB_ID);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void givenKnownJob_PauseResumeAndCancel_ShouldDelegateToTheService() {
+        when(circumstancesService.pauseMigrationJob(MIGRATION_JOB_ID)).thenReturn(migrationJobResponseMock);
+        when(circumstancesService.resumeMigrationJob(MIGRATION_JOB_ID)).thenReturn(migrationJobResponseMock);
+        when(circumstancesService.cancelMigrationJob(MIGRATION_JOB_ID)).thenReturn(migrationJobResponseMock);
+
+        assertEquals(HttpStatus.OK, sut.pauseMigrationJob(MIGRATION_JOB_ID).getStatusCode());
+        assertEquals(HttpStatus.OK, sut.resumeMigrationJob(MIGRATION_JOB_ID).getStatusCode());
+        assertEquals(HttpStatus.OK, sut.cancelMigrationJob(MIGRATION_JOB_ID).getStatusCode());
+        verify(circumstancesService).pauseMigrationJob(MIGRATION_JOB_ID);
+        verify(circumstancesService).resumeMigrationJob(MIGRATION_JOB_ID);
+        verify(circumstancesService).cancelMigrationJob(MIGRATION_JOB_ID);
+    }
 
 }
@@ -0,0 +1,76 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionHoldTimingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection pooledConnection = mock(Connection.class);
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void connections_borrowed_by_a_request_should_be_timed_by_endpoint() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/nsjsa/v1/claim/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/nsjsa/v1/claim/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        DataSource sut = timing(new CircumstancesMetricsProperties());
+
+        Connection connection = sut.getConnection();
+        connection.close();
+        connection.close();
+
+        verify(pooledConnection, times(2)).close();
+        assertEquals(1, meterRegistry.get(CircumstancesMetrics.CONNECTION_HOLD)
+                .tags("method", "GET", "uri", "/nsjsa/v1/claim/{id}").timer().count());
+    }
+
+    @Test
+    public void connections_borrowed_outside_a_request_should_be_timed_as_background() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        DataSource sut = timing(new CircumstancesMetricsProperties());
+
+        sut.getConnection().close();
+
+        assertEquals(1, meterRegistry.get(CircumstancesMetrics.CONNECTION_HOLD)
+                .tag("uri", ConnectionHoldTimingDataSource.BACKGROUND).timer().count());
+    }
+
+    @Test
+    public void connections_should_not_be_wrapped_when_detailed_metrics_are_off() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        CircumstancesMetricsProperties properties = new CircumstancesMetricsProperties();
+        properties.setDetailed(false);
+
+        assertSame(pooledConnection, timing(properties).getConnection());
+        assertNull(meterRegistry.find(CircumstancesMetrics.CONNECTION_HOLD).timer());
+    }
+
+    private DataSource timing(final CircumstancesMetricsProperties properties) {
+        CircumstancesMetrics metrics = new CircumstancesMetrics(meterRegistry, properties);
+        return new ConnectionHoldTimingDataSource(pool, () -> metrics);
+    }
+}
@@ -0,0 +1,72 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RepositoryMetricsAspectTest {
+
+    private static final UUID ID = UUID.randomUUID();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircumstancesRepository target = mock(CircumstancesRepository.class);
+
+    @Before
+    public void setUp() {
+        when(target.findById(ID)).thenReturn(Optional.empty());
+        when(target.existsById(ID)).thenThrow(new IllegalStateException());
+    }
+
+    @Test
+    public void repository_calls_should_be_timed_by_method() {
+        CircumstancesRepository repository = timed(new CircumstancesMetricsProperties());
+
+        repository.findById(ID);
+        repository.findById(ID);
+
+        assertEquals(2, meterRegistry.get(CircumstancesMetrics.REPOSITORY)
+                .tags("method", "findById", "exception", "None").timer().count());
+    }
+
+    @Test
+    public void failed_repository_calls_should_be_tagged_with_the_exception() {
+        CircumstancesRepository repository = timed(new CircumstancesMetricsProperties());
+
+        try {
+            repository.existsById(ID);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(1, meterRegistry.get(CircumstancesMetrics.REPOSITORY)
+                    .tags("method", "existsById", "exception", "IllegalStateException").timer().count());
+        }
+    }
+
+    @Test
+    public void repository_calls_should_not_be_timed_when_detailed_metrics_are_off() {
+        CircumstancesMetricsProperties properties = new CircumstancesMetricsProperties();
+        properties.setDetailed(false);
+        CircumstancesRepository repository = timed(properties);
+
+        repository.findById(ID);
+
+        assertNull(meterRegistry.find(CircumstancesMetrics.REPOSITORY).timer());
+    }
+
+    private CircumstancesRepository timed(final CircumstancesMetricsProperties properties) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(CircumstancesRepository.class);
+        factory.addAspect(new RepositoryMetricsAspect(new CircumstancesMetrics(meterRegistry, properties)));
+        return factory.getProxy();
+    }
+}
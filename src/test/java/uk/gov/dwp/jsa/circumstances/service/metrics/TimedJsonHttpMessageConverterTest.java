@@ -0,0 +1,47 @@
+package uk.gov.dwp.jsa.circumstances.service.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TimedJsonHttpMessageConverterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void writing_a_body_should_be_timed_and_sized() throws IOException {
+        TimedJsonHttpMessageConverter converter = new TimedJsonHttpMessageConverter(new ObjectMapper(),
+                new CircumstancesMetrics(meterRegistry, new CircumstancesMetricsProperties()));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Collections.singletonMap("key", "value"), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertEquals("{\"key\":\"value\"}", outputMessage.getBodyAsString());
+        assertEquals(1, meterRegistry.get(CircumstancesMetrics.RESPONSE_SERIALIZATION).timer().count());
+        DistributionSummary size = meterRegistry.get(CircumstancesMetrics.RESPONSE_SIZE).summary();
+        assertEquals(outputMessage.getBodyAsBytes().length, size.totalAmount(), 0);
+    }
+
+    @Test
+    public void writing_a_body_should_not_be_timed_when_detailed_metrics_are_off() throws IOException {
+        CircumstancesMetricsProperties properties = new CircumstancesMetricsProperties();
+        properties.setDetailed(false);
+        TimedJsonHttpMessageConverter converter = new TimedJsonHttpMessageConverter(new ObjectMapper(),
+                new CircumstancesMetrics(meterRegistry, properties));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Collections.singletonMap("key", "value"), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertEquals("{\"key\":\"value\"}", outputMessage.getBodyAsString());
+        assertNull(meterRegistry.find(CircumstancesMetrics.RESPONSE_SERIALIZATION).timer());
+    }
+}
@@ -0,0 +1,237 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import uk.gov.dwp.jsa.circumstances.service.async.AsyncProperties;
+import uk.gov.dwp.jsa.circumstances.service.async.BackgroundConnections;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EncryptionMigrationTest {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private CircumstancesRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EncryptionMigrationProperties properties;
+
+    private BackgroundConnections connections;
+
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    private EncryptionMigration sut;
+
+    @Before
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        properties = new EncryptionMigrationProperties();
+        properties.setChunkSize(CHUNK_SIZE);
+        properties.setWorkers(1);
+        connections = new BackgroundConnections(new AsyncProperties());
+        asyncExecutor = new ThreadPoolTaskExecutor();
+        asyncExecutor.setCorePoolSize(1);
+        asyncExecutor.initialize();
+        sut = new EncryptionMigration(repository, transactionManager, properties, connections, asyncExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        asyncExecutor.shutdown();
+    }
+
+    @Test
+    public void givenUnencryptedRows_run_ShouldEncryptThemChunkByChunkInIdOrder() {
+        ClaimCircumstances first = circumstances(1);
+        ClaimCircumstances second = circumstances(2);
+        ClaimCircumstances third = circumstances(3);
+        when(repository.findUnencryptedCircumstancesAfter(FIRST_ID, CHUNK_SIZE))
+                .thenReturn(Arrays.asList(first, second))
+                .thenReturn(Collections.emptyList());
+        when(repository.findUnencryptedCircumstancesAfter(second.getId(), CHUNK_SIZE))
+                .thenReturn(Collections.singletonList(third));
+        when(repository.findUnencryptedCircumstancesAfter(third.getId(), CHUNK_SIZE))
+                .thenReturn(Collections.emptyList());
+
+        when(repository.countUnencryptedCircumstances(100)).thenReturn(3L);
+        MigrationJob job = newJob(100);
+
+        sut.run(job);
+
+        assertEquals(3, job.getRowsProcessed());
+        assertEquals(0, job.getRowsRemaining());
+        assertEquals(MigrationJob.Status.COMPLETED, job.getStatus());
+
+        assertTrue(first.isEncryptedJson());
+        assertTrue(second.isEncryptedJson());
+        assertTrue(third.isEncryptedJson());
+        verify(transactionManager, times(4)).commit(any());
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).findUnencryptedCircumstancesAfter(FIRST_ID, CHUNK_SIZE);
+        inOrder.verify(repository).findUnencryptedCircumstancesAfter(second.getId(), CHUNK_SIZE);
+        inOrder.verify(repository).findUnencryptedCircumstancesAfter(third.getId(), CHUNK_SIZE);
+        inOrder.verify(repository).findUnencryptedCircumstancesAfter(FIRST_ID, CHUNK_SIZE);
+    }
+
+    @Test
+    public void givenRowLimit_run_ShouldNotClaimMoreRowsThanTheLimit() {
+        ClaimCircumstances first = circumstances(1);
+        when(repository.findUnencryptedCircumstancesAfter(FIRST_ID, 1))
+                .thenReturn(Collections.singletonList(first));
+
+        MigrationJob job = newJob(1);
+
+        sut.run(job);
+
+        assertEquals(1, job.getRowsProcessed());
+
+        verify(repository).findUnencryptedCircumstancesAfter(eq(FIRST_ID), anyInt());
+    }
+
+    @Test
+    public void givenFailingChunk_run_ShouldStopAndRollBack() {
+        when(repository.findUnencryptedCircumstancesAfter(FIRST_ID, CHUNK_SIZE))
+                .thenThrow(new IllegalStateException("cannot encrypt"));
+
+        MigrationJob job = newJob(100);
+
+        sut.run(job);
+
+        assertEquals(0, job.getRowsProcessed());
+        assertEquals(MigrationJob.Status.FAILED, job.getStatus());
+
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void givenSeveralWorkers_run_ShouldShareTheRowLimit() {
+        properties.setWorkers(3);
+        when(repository.findUnencryptedCircumstancesAfter(any(), anyInt()))
+                .thenAnswer(invocation -> Collections.nCopies((Integer) invocation.getArgument(1), circumstances(9)));
+
+        MigrationJob job = newJob(5);
+
+        sut.run(job);
+
+        assertEquals(5, job.getRowsProcessed());
+    }
+
+    @Test
+    public void givenRun_run_ShouldCountTheRowsRemainingWithABackgroundConnection() {
+        when(repository.countUnencryptedCircumstances(100)).thenAnswer(invocation -> {
+            assertEquals(1, connections.getActive());
+            return 0L;
+        });
+
+        MigrationJob job = newJob(100);
+
+        sut.run(job);
+
+        assertEquals(0, job.getRowsRemaining());
+        assertEquals(MigrationJob.Status.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    public void givenJobOnTheOnlyExecutorThread_run_ShouldNotWaitForQueuedWorkers() throws Exception {
+        properties.setWorkers(3);
+        when(repository.findUnencryptedCircumstancesAfter(any(), anyInt()))
+                .thenAnswer(invocation -> Collections.nCopies((Integer) invocation.getArgument(1), circumstances(9)));
+
+        MigrationJob job = newJob(5);
+        Future<?> run = asyncExecutor.submit(() -> sut.run(job));
+
+        run.get(10, TimeUnit.SECONDS);
+        assertEquals(5, job.getRowsProcessed());
+        assertEquals(MigrationJob.Status.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    public void givenFullExecutor_run_ShouldMigrateOnTheJobThread() {
+        properties.setWorkers(3);
+        AsyncTaskExecutor fullExecutor = mock(AsyncTaskExecutor.class);
+        doThrow(new TaskRejectedException("full")).when(fullExecutor).submit(any(Callable.class));
+        sut = new EncryptionMigration(repository, transactionManager, properties, connections, fullExecutor);
+        when(repository.findUnencryptedCircumstancesAfter(any(), anyInt()))
+                .thenAnswer(invocation -> Collections.nCopies((Integer) invocation.getArgument(1), circumstances(9)));
+
+        MigrationJob job = newJob(5);
+
+        sut.run(job);
+
+        assertEquals(5, job.getRowsProcessed());
+        assertEquals(MigrationJob.Status.COMPLETED, job.getStatus());
+        verify(fullExecutor, times(1)).submit(any(Callable.class));
+    }
+
+    @Test
+    public void givenCancelledJob_run_ShouldNotClaimAnyChunk() {
+        MigrationJob job = newJob(100);
+        job.cancel();
+
+        sut.run(job);
+
+        verify(repository, never()).findUnencryptedCircumstancesAfter(any(), anyInt());
+        assertEquals(MigrationJob.Status.CANCELLED, job.getStatus());
+    }
+
+    @Test
+    public void givenJobCancelledBetweenChunks_run_ShouldStopAfterTheChunkInProgress() {
+        MigrationJob job = newJob(100);
+        when(repository.findUnencryptedCircumstancesAfter(any(), anyInt())).thenAnswer(invocation -> {
+            job.cancel();
+            return Collections.singletonList(circumstances(1));
+        });
+
+        sut.run(job);
+
+        verify(repository).findUnencryptedCircumstancesAfter(any(), anyInt());
+        assertEquals(1, job.getRowsProcessed());
+        assertEquals(MigrationJob.Status.CANCELLED, job.getStatus());
+    }
+
+    private static MigrationJob newJob(final int rowLimit) {
+        return new MigrationJobs(new SimpleMeterRegistry()).create(EncryptionMigration.MIGRATION_NAME, rowLimit);
+    }
+
+    private static ClaimCircumstances circumstances(final int id) {
+        ClaimCircumstances claimCircumstances = new ClaimCircumstances();
+        claimCircumstances.setId(new UUID(0L, id));
+        return claimCircumstances;
+    }
+}
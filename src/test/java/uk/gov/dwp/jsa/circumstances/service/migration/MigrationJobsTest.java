@@ -0,0 +1,182 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationJobsTest {
+
+    private static final Instant START = Instant.parse("2020-06-01T10:00:00Z");
+    private static final String MIGRATION = "encryption";
+
+    private final MutableClock clock = new MutableClock();
+    private SimpleMeterRegistry meterRegistry;
+    private MigrationJobs sut;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new MigrationJobs(meterRegistry, clock);
+    }
+
+    @Test
+    public void createdJob_ShouldBeFoundById() {
+        MigrationJob job = sut.create(MIGRATION, 10);
+
+        assertEquals(job, sut.find(job.getId()).get());
+        assertFalse(sut.find(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    public void activeJob_ShouldBeReturnedInsteadOfStartingAnother() {
+        List<MigrationJob> started = new ArrayList<>();
+        MigrationJob first = sut.startUnlessActive(MIGRATION, 10, started::add);
+        MigrationJob second = sut.startUnlessActive(MIGRATION, 20, started::add);
+
+        assertEquals(first, second);
+        assertEquals(1, started.size());
+
+        first.finish(false);
+        MigrationJob third = sut.startUnlessActive(MIGRATION, 20, started::add);
+
+        assertFalse(first.equals(third));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void jobThatFailsToStart_ShouldBeMarkedFailed() {
+        List<MigrationJob> created = new ArrayList<>();
+        try {
+            sut.startUnlessActive(MIGRATION, 10, job -> {
+                created.add(job);
+                throw new IllegalStateException();
+            });
+        } catch (IllegalStateException e) {
+            assertEquals(MigrationJob.Status.FAILED, created.get(0).getStatus());
+            return;
+        }
+        throw new AssertionError("Expected the start failure to be rethrown");
+    }
+
+    @Test
+    public void progress_ShouldGiveRateAndEstimatedTimeRemaining() {
+        MigrationJob job = sut.create(MIGRATION, 1000);
+        job.estimateRowsRemaining(300);
+        assertNull(job.getEstimatedSecondsRemaining());
+
+        job.recordProcessed(100);
+        clock.advance(Duration.ofSeconds(10));
+
+        assertEquals(100, job.getRowsProcessed());
+        assertEquals(200, job.getRowsRemaining());
+        assertEquals(10.0, job.getRowsPerSecond(), 0);
+        assertEquals(Long.valueOf(20), job.getEstimatedSecondsRemaining());
+    }
+
+    @Test
+    public void progress_ShouldBePublishedAsMetrics() {
+        MigrationJob job = sut.create(MIGRATION, 1000);
+        job.estimateRowsRemaining(300);
+        job.recordProcessed(100);
+
+        assertEquals(100, meterRegistry.get("circumstances.migration.rows").tag("migration", MIGRATION)
+                .counter().count(), 0);
+        assertEquals(200, meterRegistry.get("circumstances.migration.rows.remaining").tag("migration", MIGRATION)
+                .gauge().value(), 0);
+        assertEquals(1, meterRegistry.get("circumstances.migration.jobs.active").gauge().value(), 0);
+
+        job.finish(false);
+
+        assertEquals(0, meterRegistry.get("circumstances.migration.rows.remaining").gauge().value(), 0);
+        assertEquals(0, meterRegistry.get("circumstances.migration.jobs.active").gauge().value(), 0);
+    }
+
+    @Test
+    public void finishedJob_ShouldNotChangeStatusAnyMore() {
+        MigrationJob job = sut.create(MIGRATION, 10);
+        assertTrue(job.cancel());
+        job.finish(true);
+
+        assertEquals(MigrationJob.Status.CANCELLED, job.getStatus());
+        assertFalse(job.pause());
+        assertFalse(job.resume());
+        assertFalse(job.cancel());
+        assertEquals(START, job.getFinishedAt());
+    }
+
+    @Test
+    public void pausedJob_ShouldHoldItsWorkersUntilResumed() throws InterruptedException {
+        MigrationJob job = sut.create(MIGRATION, 10);
+        assertTrue(job.pause());
+        CountDownLatch resumed = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            try {
+                if (job.awaitRunning()) {
+                    resumed.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        worker.start();
+
+        assertFalse(resumed.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(job.resume());
+        assertTrue(resumed.await(1, TimeUnit.SECONDS));
+        worker.join();
+    }
+
+    @Test
+    public void finishedJobs_ShouldOnlyBeKeptUpToALimit() {
+        List<MigrationJob> finished = new ArrayList<>();
+        for (int i = 0; i < MigrationJobs.MAX_FINISHED_JOBS; i++) {
+            MigrationJob job = sut.create(MIGRATION, 10);
+            clock.advance(Duration.ofSeconds(1));
+            job.finish(false);
+            finished.add(job);
+        }
+        MigrationJob running = sut.create(MIGRATION, 10);
+
+        assertFalse(sut.find(finished.get(0).getId()).isPresent());
+        assertTrue(sut.find(finished.get(1).getId()).isPresent());
+        assertTrue(sut.find(running.getId()).isPresent());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = START;
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
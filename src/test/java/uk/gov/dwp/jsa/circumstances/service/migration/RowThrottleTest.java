@@ -0,0 +1,37 @@
+package uk.gov.dwp.jsa.circumstances.service.migration;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class RowThrottleTest {
+
+    private static final long NOW = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    public void unlimited_throttle_should_never_wait() {
+        RowThrottle throttle = new RowThrottle(0);
+
+        assertEquals(0, throttle.reserve(1000, NOW));
+        assertEquals(0, throttle.reserve(1000, NOW));
+    }
+
+    @Test
+    public void throttle_should_space_out_reservations() {
+        RowThrottle throttle = new RowThrottle(10);
+
+        assertEquals(0, throttle.reserve(5, NOW));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), throttle.reserve(5, NOW));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(800), throttle.reserve(1, NOW + TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    @Test
+    public void throttle_should_not_bank_idle_time() {
+        RowThrottle throttle = new RowThrottle(10);
+
+        assertEquals(0, throttle.reserve(5, NOW));
+        assertEquals(0, throttle.reserve(5, NOW + TimeUnit.SECONDS.toNanos(10)));
+    }
+}
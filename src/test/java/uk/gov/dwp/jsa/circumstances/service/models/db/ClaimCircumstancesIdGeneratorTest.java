@@ -0,0 +1,72 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.service.ServiceRegistry;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClaimCircumstancesIdGeneratorTest {
+
+    private static final long NOW = 1_600_000_000_000L;
+
+    @Test
+    public void timeOrderedUuid_ShouldBeAVersion7UuidCarryingTheTimestamp() {
+        UUID id = ClaimCircumstancesIdGenerator.timeOrderedUuid(NOW, new Random());
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(NOW, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    public void timeOrderedUuids_ShouldIncreaseWithinAMillisecondAndWhenTheClockGoesBack() {
+        UUID previous = ClaimCircumstancesIdGenerator.timeOrderedUuid(NOW, new Random());
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = ClaimCircumstancesIdGenerator.timeOrderedUuid(i % 2 == 0 ? NOW : NOW - 1, new Random());
+            assertThat(next.toString(), greaterThan(previous.toString()));
+            previous = next;
+        }
+    }
+
+    @Test
+    public void givenDefaultStrategy_Generate_ShouldReturnTimeOrderedIds() {
+        ClaimCircumstancesIdGenerator generator = configuredWith(ClaimCircumstancesIdGenerator.TIME_ORDERED);
+
+        assertEquals(7, ((UUID) generator.generate(null, null)).version());
+    }
+
+    @Test
+    public void givenRandomStrategy_Generate_ShouldReturnRandomIds() {
+        ClaimCircumstancesIdGenerator generator = configuredWith(ClaimCircumstancesIdGenerator.RANDOM);
+
+        assertEquals(4, ((UUID) generator.generate(null, null)).version());
+    }
+
+    @Test(expected = MappingException.class)
+    public void givenUnknownStrategy_Configure_ShouldFail() {
+        configuredWith("sequential");
+    }
+
+    private static ClaimCircumstancesIdGenerator configuredWith(final String strategy) {
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+        when(configurationService.getSetting(eq(ClaimCircumstancesIdGenerator.STRATEGY_SETTING), eq(StandardConverters.STRING),
+                eq(ClaimCircumstancesIdGenerator.TIME_ORDERED))).thenReturn(strategy);
+        ServiceRegistry serviceRegistry = mock(ServiceRegistry.class);
+        when(serviceRegistry.getService(ConfigurationService.class)).thenReturn(configurationService);
+        ClaimCircumstancesIdGenerator generator = new ClaimCircumstancesIdGenerator();
+        generator.configure(null, new Properties(), serviceRegistry);
+        return generator;
+    }
+}
@@ -22,7 +22,7 @@ public class ClaimCircumstancesTest {
     public static final String LOCALE = "LOCALE";
     public static final String SOURCE = "SOURCE";
     public static final String HASH = "HASH";
-    public static final String CLAIMANT_ID = UUID.randomUUID().toString();
+    public static final UUID CLAIMANT_ID = UUID.randomUUID();
     private static final LocalDateTime CREATED_TIME_STAMP = LocalDateTime.now();
     private static final LocalDateTime UPDATED_TIME_STAMP = LocalDateTime.now();
 
@@ -38,7 +38,7 @@ public class ClaimCircumstancesTest {
     @Test
     public void updates() {
         givenADefaultClaimCircumstances();
-        claimCircumstances.update(CLAIM_CIRCUMSTANCES_JSON, UUID.fromString(CLAIMANT_ID), HASH, SOURCE, VERSION, LOCALE);
+        claimCircumstances.update(CLAIM_CIRCUMSTANCES_JSON, CLAIMANT_ID, HASH, SOURCE, VERSION, LOCALE);
         assertThat(CLAIMANT_ID, is(claimCircumstances.getClaimantId()));
         assertThat(CLAIM_CIRCUMSTANCES_JSON, is(claimCircumstances.getClaimCircumstancesJson()));
         assertThat(VERSION, is(claimCircumstances.getServiceVersion()));
@@ -136,7 +136,7 @@ public class ClaimCircumstancesTest {
         assertThat(Locale.forLanguageTag(LOCALE), is(claimCircumstances.getLocale()));
     }
 
-    private void givenAClaimCircumstances(final CircumstancesRequest claimCircumstancesJson, final String claimantId, final String hash, final String source, final String version, final String locale) {
+    private void givenAClaimCircumstances(final CircumstancesRequest claimCircumstancesJson, final UUID claimantId, final String hash, final String source, final String version, final String locale) {
         claimCircumstances = new ClaimCircumstances(claimCircumstancesJson,
                                                     claimantId,
                                                     hash,
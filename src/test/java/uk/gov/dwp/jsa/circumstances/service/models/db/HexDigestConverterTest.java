@@ -0,0 +1,34 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HexDigestConverterTest {
+
+    private final HexDigestConverter sut = new HexDigestConverter();
+
+    @Test
+    public void sha256Hex_ShouldBeStoredAsThe32RawBytesAndReadBackUnchanged() {
+        String hash = DigestUtils.sha256Hex("circumstances");
+
+        byte[] stored = sut.convertToDatabaseColumn(hash);
+
+        assertArrayEquals(DigestUtils.sha256("circumstances"), stored);
+        assertEquals(hash, sut.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    public void nullDigest_ShouldStayNull() {
+        assertNull(sut.convertToDatabaseColumn(null));
+        assertNull(sut.convertToEntityAttribute(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digestThatIsNotHex_ShouldBeRejected() {
+        sut.convertToDatabaseColumn("not hex");
+    }
+}
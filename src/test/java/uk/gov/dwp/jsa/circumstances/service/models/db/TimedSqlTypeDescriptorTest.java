@@ -0,0 +1,99 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetrics;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetricsProperties;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TimedSqlTypeDescriptorTest {
+
+    private static final String PAYLOAD = "encrypted-payload";
+    private static final String COLUMN = "claim_circumstances_json";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlTypeDescriptor delegate = mock(SqlTypeDescriptor.class);
+    @SuppressWarnings("unchecked")
+    private final JavaTypeDescriptor<String> javaTypeDescriptor = mock(JavaTypeDescriptor.class);
+
+    private TimedSqlTypeDescriptor sut;
+
+    @Before
+    public void setUp() {
+        new CircumstancesMetrics(meterRegistry, new CircumstancesMetricsProperties());
+        when(delegate.getBinder(any())).thenReturn(new ValueBinder<Object>() {
+            @Override
+            public void bind(final PreparedStatement st, final Object value, final int index,
+                             final WrapperOptions options) throws SQLException {
+                st.setString(index, PAYLOAD);
+            }
+
+            @Override
+            public void bind(final CallableStatement st, final Object value, final String name,
+                             final WrapperOptions options) {
+            }
+        });
+        when(delegate.getExtractor(any())).thenReturn(new ValueExtractor<Object>() {
+            @Override
+            public Object extract(final ResultSet rs, final String name,
+                                  final WrapperOptions options) throws SQLException {
+                return rs.getString(name);
+            }
+
+            @Override
+            public Object extract(final CallableStatement statement, final int index,
+                                  final WrapperOptions options) {
+                return null;
+            }
+
+            @Override
+            public Object extract(final CallableStatement statement, final String[] paramNames,
+                                  final WrapperOptions options) {
+                return null;
+            }
+        });
+        sut = new TimedSqlTypeDescriptor(delegate);
+    }
+
+    @Test
+    public void binding_should_be_timed_and_sized() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        sut.getBinder(javaTypeDescriptor).bind(statement, "payload", 1, null);
+
+        verify(statement).setString(1, PAYLOAD);
+        assertEquals(1, meterRegistry.get(CircumstancesMetrics.PAYLOAD_CRYPTO)
+                .tag("operation", "encrypt").timer().count());
+        assertEquals(PAYLOAD.length(), meterRegistry.get(CircumstancesMetrics.PAYLOAD_SIZE)
+                .summary().totalAmount(), 0);
+    }
+
+    @Test
+    public void extracting_should_be_timed_and_sized() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(COLUMN)).thenReturn(PAYLOAD);
+
+        assertEquals(PAYLOAD, sut.getExtractor(javaTypeDescriptor).extract(resultSet, COLUMN, null));
+
+        assertEquals(1, meterRegistry.get(CircumstancesMetrics.PAYLOAD_CRYPTO)
+                .tag("operation", "decrypt").timer().count());
+        assertEquals(PAYLOAD.length(), meterRegistry.get(CircumstancesMetrics.PAYLOAD_SIZE)
+                .summary().totalAmount(), 0);
+    }
+}
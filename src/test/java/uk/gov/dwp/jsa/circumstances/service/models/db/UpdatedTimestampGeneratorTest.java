@@ -0,0 +1,46 @@
+package uk.gov.dwp.jsa.circumstances.service.models.db;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class UpdatedTimestampGeneratorTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2020, 1, 2, 3, 4, 5);
+
+    private final UpdatedTimestampGenerator sut = new UpdatedTimestampGenerator();
+
+    @Test
+    public void newCircumstances_ShouldBeStampedNow() {
+        LocalDateTime before = LocalDateTime.now();
+
+        LocalDateTime stamped = sut.generateValue(null, new ClaimCircumstances());
+
+        assertNotNull(stamped);
+        assertFalse(stamped.isBefore(before));
+    }
+
+    @Test
+    public void updatedCircumstances_ShouldBeStampedNow() {
+        ClaimCircumstances circumstances = new ClaimCircumstances();
+        circumstances.setUpdatedTimestamp(UPDATED);
+        circumstances.setEncryptedJson(true);
+
+        assertTrue(sut.generateValue(null, circumstances).isAfter(UPDATED));
+    }
+
+    @Test
+    public void circumstancesEncryptedInPlace_ShouldKeepTheirTimestamp() {
+        ClaimCircumstances circumstances = new ClaimCircumstances();
+        circumstances.setUpdatedTimestamp(UPDATED);
+        circumstances.encryptInPlace();
+
+        assertEquals(UPDATED, sut.generateValue(null, circumstances));
+        assertTrue(circumstances.isEncryptedJson());
+    }
+}
@@ -0,0 +1,92 @@
+package uk.gov.dwp.jsa.circumstances.service.models.http;
+
+import org.junit.Test;
+import org.objenesis.ObjenesisStd;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class CircumstancesResponseTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final ObjenesisStd OBJENESIS = new ObjenesisStd();
+
+    @Test
+    public void everyFieldOfTheStoredCircumstances_ShouldBeCopiedToTheResponse() throws Exception {
+        CircumstancesRequest stored = new CircumstancesRequest();
+        List<Field> fields = circumstancesFields();
+        for (Field field : fields) {
+            field.set(stored, sampleValue(field));
+        }
+        ClaimCircumstances claimCircumstances = new ClaimCircumstances(ID, stored, "v1");
+        claimCircumstances.setHash("hash");
+
+        CircumstancesResponse response = new CircumstancesResponse(claimCircumstances);
+
+        for (Field field : fields) {
+            String message = field.getDeclaringClass().getSimpleName() + "." + field.getName()
+                    + " is not copied to the response";
+            if ("id".equals(field.getName())) {
+                assertEquals(message, ID, field.get(response));
+            } else if (field.getType().isPrimitive()) {
+                assertEquals(message, field.get(stored), field.get(response));
+            } else {
+                assertSame(message, field.get(stored), field.get(response));
+            }
+        }
+        assertEquals("hash", response.getHash());
+    }
+
+    private static List<Field> circumstancesFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> type = CircumstancesRequest.class; type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Object sampleValue(final Field field) {
+        Class<?> type = field.getType();
+        if (type == boolean.class || type == Boolean.class) {
+            return true;
+        } else if (type == int.class || type == Integer.class) {
+            return 7;
+        } else if (type == long.class || type == Long.class) {
+            return 7L;
+        } else if (type == double.class || type == Double.class) {
+            return 7d;
+        } else if (type == String.class) {
+            return field.getName();
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[constants.length - 1];
+        } else if (type.isArray()) {
+            return Array.newInstance(type.getComponentType(), 1);
+        } else if (type.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        } else if (type.isAssignableFrom(HashSet.class)) {
+            return new HashSet<>();
+        } else if (type.isAssignableFrom(HashMap.class)) {
+            return new HashMap<>();
+        } else if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return mock(type);
+        }
+        return OBJENESIS.newInstance(type);
+    }
+}
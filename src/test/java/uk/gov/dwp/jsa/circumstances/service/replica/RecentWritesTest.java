@@ -0,0 +1,94 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecentWritesTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+    private static final UUID OTHER_ID = UUID.randomUUID();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    public void reads_of_recent_writes_should_require_the_primary() {
+        RecentWrites sut = new RecentWrites(enabled(), nanos::get);
+        sut.record(ID, CLAIMANT_ID);
+
+        assertTrue(sut.read(ID, sut::isPrimaryRequired));
+        assertTrue(sut.read(CLAIMANT_ID, sut::isPrimaryRequired));
+        assertTrue(sut.read(Arrays.asList(OTHER_ID, ID), sut::isPrimaryRequired));
+        assertFalse(sut.read(OTHER_ID, sut::isPrimaryRequired));
+        assertFalse(sut.isPrimaryRequired());
+    }
+
+    @Test
+    public void writes_should_be_forgotten_after_the_window() {
+        RecentWrites sut = new RecentWrites(enabled(), nanos::get);
+        sut.record(ID, null);
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertFalse(sut.read(ID, sut::isPrimaryRequired));
+    }
+
+    @Test
+    public void recording_everything_should_require_the_primary_for_every_read_for_a_window() {
+        RecentWrites sut = new RecentWrites(enabled(), nanos::get);
+        sut.recordEverything();
+
+        assertTrue(sut.read(OTHER_ID, sut::isPrimaryRequired));
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertFalse(sut.read(OTHER_ID, sut::isPrimaryRequired));
+    }
+
+    @Test
+    public void too_many_writes_should_require_the_primary_for_every_read() {
+        ReplicaProperties properties = enabled();
+        properties.setMaximumRecentWrites(1);
+        RecentWrites sut = new RecentWrites(properties, nanos::get);
+
+        sut.recordAll(Arrays.asList(ID, OTHER_ID), Collections.emptyList());
+        sut.recordAll(Collections.singletonList(UUID.randomUUID()), Collections.emptyList());
+
+        assertTrue(sut.read(UUID.randomUUID(), sut::isPrimaryRequired));
+    }
+
+    @Test
+    public void reads_from_the_primary_should_require_it_whatever_was_written() {
+        RecentWrites sut = new RecentWrites(enabled(), nanos::get);
+
+        assertTrue(sut.readFromPrimary(sut::isPrimaryRequired));
+        assertFalse(sut.isPrimaryRequired());
+    }
+
+    @Test
+    public void nothing_should_be_recorded_without_a_replica() {
+        RecentWrites sut = new RecentWrites(new ReplicaProperties(), nanos::get);
+        sut.record(ID, CLAIMANT_ID);
+
+        assertFalse(sut.read(ID, sut::isPrimaryRequired));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void a_window_shorter_than_the_maximum_lag_should_be_rejected() {
+        ReplicaProperties properties = enabled();
+        properties.setReadYourWritesWindow(properties.getMaxLag());
+        new RecentWrites(properties, nanos::get);
+    }
+
+    private static ReplicaProperties enabled() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        return properties;
+    }
+}
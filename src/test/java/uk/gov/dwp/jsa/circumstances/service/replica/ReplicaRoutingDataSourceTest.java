@@ -0,0 +1,108 @@
+package uk.gov.dwp.jsa.circumstances.service.replica;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final ReplicaProperties properties = new ReplicaProperties();
+    private ReplicaLagMonitor lagMonitor;
+    private RecentWrites recentWrites;
+    private ReplicaRoutingDataSource sut;
+
+    @Before
+    public void setUp() throws SQLException {
+        properties.setEnabled(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_SQL)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        lagMonitor = new ReplicaLagMonitor(replica, properties);
+        recentWrites = new RecentWrites(properties);
+        sut = new ReplicaRoutingDataSource(primary, replica, lagMonitor, recentWrites);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void read_only_transactions_should_use_the_replica_within_the_maximum_lag() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(1d);
+        lagMonitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertTrue(lagMonitor.isAvailable());
+        assertSame(replicaConnection, sut.getConnection());
+    }
+
+    @Test
+    public void writes_should_use_the_primary() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(0d);
+        lagMonitor.check();
+
+        assertSame(primaryConnection, sut.getConnection());
+    }
+
+    @Test
+    public void read_only_transactions_should_use_the_primary_when_the_replica_is_behind() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(6d);
+        lagMonitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(lagMonitor.isAvailable());
+        assertSame(primaryConnection, sut.getConnection());
+    }
+
+    @Test
+    public void read_only_transactions_should_use_the_primary_when_the_replica_is_unreachable() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+        lagMonitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(lagMonitor.isAvailable());
+        assertSame(primaryConnection, sut.getConnection());
+    }
+
+    @Test
+    public void reads_of_recent_writes_should_use_the_primary() throws SQLException {
+        when(resultSet.getDouble(1)).thenReturn(0d);
+        lagMonitor.check();
+        UUID id = UUID.randomUUID();
+        recentWrites.record(id, null);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, recentWrites.read(id, this::connection));
+    }
+
+    private Connection connection() {
+        try {
+            return sut.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
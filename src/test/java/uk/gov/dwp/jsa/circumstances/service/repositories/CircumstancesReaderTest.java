@@ -0,0 +1,203 @@
+package uk.gov.dwp.jsa.circumstances.service.repositories;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record3;
+import org.jooq.Record5;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesChange;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CircumstancesReaderTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID CLAIMANT_ID = UUID.randomUUID();
+    private static final String HASH = "00ff";
+    private static final String SCHEMA = "other_schema";
+
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final SharedSessionContractImplementor session = mock(SharedSessionContractImplementor.class);
+    private final CircumstancesRequest payload = new CircumstancesRequest();
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Record3<UUID, byte[], Object>> rows = new ArrayList<>();
+    private Result<?> changes;
+    private CircumstancesReader sut;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        payload.setClaimantId(CLAIMANT_ID);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        when(entityManager.unwrap(SharedSessionContractImplementor.class)).thenReturn(session);
+
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        SqlTypeDescriptor sqlTypeDescriptor = mock(SqlTypeDescriptor.class);
+        JavaTypeDescriptor<CircumstancesRequest> javaTypeDescriptor = mock(JavaTypeDescriptor.class);
+        ValueExtractor<CircumstancesRequest> extractor = mock(ValueExtractor.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        AbstractSingleColumnStandardBasicType<CircumstancesRequest> payloadType =
+                new AbstractSingleColumnStandardBasicType<CircumstancesRequest>(sqlTypeDescriptor,
+                        javaTypeDescriptor) {
+                    @Override
+                    public String getName() {
+                        return "jsonb";
+                    }
+                };
+        when(sessionFactory.getMetamodel().entityPersister(ClaimCircumstances.class)
+                .getPropertyType("claimCircumstancesJson")).thenReturn(payloadType);
+        when(sqlTypeDescriptor.getExtractor(javaTypeDescriptor)).thenReturn(extractor);
+        when(extractor.extract(any(ResultSet.class), eq("claim_circumstances_json"), eq(session)))
+                .thenReturn(payload);
+
+        DSLContext dsl = DSL.using(new MockConnection(context -> {
+            statements.add(context.sql());
+            if (changes != null) {
+                return new MockResult[]{new MockResult(changes.size(), changes)};
+            }
+            Result<Record3<UUID, byte[], Object>> result = DSL.using(SQLDialect.POSTGRES).newResult(
+                    field("id", UUID.class), field("hash_digest", byte[].class), field("claim_circumstances_json",
+                            Object.class));
+            result.addAll(rows);
+            return new MockResult[]{new MockResult(result.size(), result)};
+        }), SQLDialect.POSTGRES);
+        sut = new CircumstancesReader(dsl, entityManagerFactory, SCHEMA);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+    }
+
+    @Test
+    public void findById_should_read_the_payload_through_the_entity_type() {
+        rows.add(row());
+
+        Optional<CircumstancesResponse> response = sut.findById(ID);
+
+        assertEquals(ID, response.get().getId());
+        assertEquals(CLAIMANT_ID, response.get().getClaimantId());
+        assertEquals(HASH, response.get().getHash());
+        assertThat(statements.get(0), containsString("from \"" + SCHEMA + "\".\"claim_circumstances\""));
+        assertThat(statements.get(0), containsString("where \"id\" = "));
+    }
+
+    @Test
+    public void findByClaimantId_should_look_up_the_claimant() {
+        rows.add(row());
+
+        assertEquals(ID, sut.findByClaimantId(CLAIMANT_ID).get().getId());
+        assertThat(statements.get(0), containsString("where \"claimant_uuid\" = "));
+    }
+
+    @Test
+    public void unknown_circumstances_should_not_be_found() {
+        assertFalse(sut.findById(ID).isPresent());
+    }
+
+    @Test
+    public void findChanges_should_read_updates_and_tombstones_after_the_cursor_in_order() {
+        LocalDateTime updated = LocalDateTime.of(2020, 1, 1, 0, 0);
+        UUID deletedId = UUID.randomUUID();
+        Result<Record5<UUID, UUID, byte[], LocalDateTime, Boolean>> result = DSL.using(SQLDialect.POSTGRES).newResult(
+                field("id", UUID.class), field("claimant_uuid", UUID.class), field("hash_digest", byte[].class),
+                field("timestamp", LocalDateTime.class), field("deleted", Boolean.class));
+        result.add(change(ID, new byte[]{0, (byte) 0xff}, updated, false));
+        result.add(change(deletedId, null, updated.plusSeconds(1), true));
+        changes = result;
+
+        List<CircumstancesChange> found = sut.findChanges(updated.minusDays(1), UUID.randomUUID(),
+                updated.plusDays(1), 2);
+
+        assertEquals(ID, found.get(0).getId());
+        assertEquals(CLAIMANT_ID, found.get(0).getClaimantId());
+        assertEquals(HASH, found.get(0).getHash());
+        assertEquals(updated, found.get(0).getTimestamp());
+        assertFalse(found.get(0).isDeleted());
+        assertEquals(deletedId, found.get(1).getId());
+        assertNull(found.get(1).getHash());
+        assertTrue(found.get(1).isDeleted());
+        assertThat(statements.get(0), containsString("(\"updated_timestamp\", \"id\") > ("));
+        assertThat(statements.get(0), containsString("(\"deleted_timestamp\", \"id\") > ("));
+        assertThat(statements.get(0), containsString("union all"));
+        assertThat(statements.get(0),
+                containsString("from \"" + SCHEMA + "\".\"claim_circumstances_tombstone\""));
+        assertThat(statements.get(0), containsString("order by \"changes\".\"timestamp\", \"changes\".\"id\""));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reads_outside_a_transaction_should_be_rejected() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        try {
+            rows.add(row());
+            sut.findById(ID);
+        } finally {
+            TransactionSynchronizationManager.bindResource(entityManagerFactory,
+                    new EntityManagerHolder(entityManager));
+        }
+    }
+
+    private static Record3<UUID, byte[], Object> row() {
+        Record3<UUID, byte[], Object> row = DSL.using(SQLDialect.POSTGRES).newRecord(
+                field("id", UUID.class), field("hash_digest", byte[].class), field("claim_circumstances_json",
+                        Object.class));
+        row.values(ID, new byte[]{0, (byte) 0xff}, "{}");
+        return row;
+    }
+
+    private static Record5<UUID, UUID, byte[], LocalDateTime, Boolean> change(
+            final UUID id,
+            final byte[] hash,
+            final LocalDateTime timestamp,
+            final boolean deleted
+    ) {
+        Record5<UUID, UUID, byte[], LocalDateTime, Boolean> change = DSL.using(SQLDialect.POSTGRES).newRecord(
+                field("id", UUID.class), field("claimant_uuid", UUID.class), field("hash_digest", byte[].class),
+                field("timestamp", LocalDateTime.class), field("deleted", Boolean.class));
+        change.values(id, CLAIMANT_ID, hash, timestamp, deleted);
+        return change;
+    }
+
+    private static <T> Field<T> field(final String name, final Class<T> type) {
+        return DSL.field(DSL.name(name), type);
+    }
+}
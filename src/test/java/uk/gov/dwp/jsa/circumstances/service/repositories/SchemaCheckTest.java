@@ -0,0 +1,62 @@
+package uk.gov.dwp.jsa.circumstances.service.repositories;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SchemaCheckTest {
+
+    private static final String SCHEMA = "circumstances_schema";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SchemaCheck sut;
+
+    @Before
+    public void setUp() {
+        sut = new SchemaCheck(jdbcTemplate, SCHEMA);
+    }
+
+    @Test
+    public void givenEveryColumn_Verify_ShouldPass() {
+        givenColumns(new ArrayList<>(SchemaCheck.REQUIRED_COLUMNS));
+
+        sut.verify();
+    }
+
+    @Test
+    public void givenTheChangelogHasNotBeenApplied_Verify_ShouldNameTheMissingColumns() {
+        List<String> columns = new ArrayList<>(SchemaCheck.REQUIRED_COLUMNS);
+        columns.remove("claim_circumstances.hash_digest");
+        givenColumns(columns);
+
+        try {
+            sut.verify();
+            fail("Expected the check to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("claim_circumstances.hash_digest"));
+            assertThat(e.getMessage(), not(containsString("claimant_uuid")));
+            assertThat(e.getMessage(), containsString(SCHEMA));
+        }
+    }
+
+    private void givenColumns(final List<String> columns) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(SCHEMA))).thenReturn(columns);
+    }
+}
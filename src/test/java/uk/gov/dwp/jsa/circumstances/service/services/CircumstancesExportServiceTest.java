@@ -0,0 +1,135 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.InvalidExportRangeException;
+import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircumstancesExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2020, 2, 1, 0, 0);
+
+    private final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+
+    @Mock
+    private CircumstancesRepository repository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CircumstancesExportService sut;
+
+    @Before
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        sut = new CircumstancesExportService(repository, entityManager, mapper, transactionManager);
+    }
+
+    @Test
+    public void givenNoRange_Export_ShouldWriteEveryCircumstancesOnItsOwnLine() throws IOException {
+        final ClaimCircumstances first = circumstances();
+        final ClaimCircumstances second = circumstances();
+        when(repository.streamAllForExport()).thenReturn(Stream.of(first, second));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, sut.export(ExportRange.of(ExportRange.UPDATED, null, null), out));
+
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        final JsonNode line = mapper.readTree(lines[0]);
+        assertEquals(first.getId().toString(), line.get("id").asText());
+        assertEquals(first.getClaimCircumstancesJson().getClaimantId().toString(), line.get("claimantId").asText());
+        assertEquals(second.getId().toString(), mapper.readTree(lines[1]).get("id").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    public void givenCreatedRange_Export_ShouldQueryTheCreatedTimestamp() throws IOException {
+        when(repository.streamCreatedBetweenForExport(FROM, TO)).thenReturn(Stream.empty());
+
+        assertEquals(0, sut.export(ExportRange.of(ExportRange.CREATED, FROM, TO), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void givenRangeOpenAtTheEnd_Export_ShouldQueryUpToTheLatestTimestamp() throws IOException {
+        final ExportRange range = ExportRange.of(ExportRange.UPDATED, FROM, null);
+        when(repository.streamUpdatedBetweenForExport(FROM, range.getTo())).thenReturn(Stream.empty());
+
+        sut.export(range, new ByteArrayOutputStream());
+
+        assertTrue(range.getTo().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    public void givenClientGoesAway_Export_ShouldCloseTheQueryAndRethrow() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamAllForExport()).thenReturn(Stream.of(circumstances()).onClose(() -> closed.set(true)));
+        final OutputStream broken = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        try {
+            sut.export(ExportRange.of(ExportRange.UPDATED, null, null), broken);
+            fail();
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+        assertTrue(closed.get());
+    }
+
+    @Test(expected = InvalidExportRangeException.class)
+    public void givenUnknownTimestamp_Range_ShouldBeInvalid() {
+        ExportRange.of("deleted", FROM, TO);
+    }
+
+    @Test(expected = InvalidExportRangeException.class)
+    public void givenFromNotBeforeTo_Range_ShouldBeInvalid() {
+        ExportRange.of(ExportRange.UPDATED, TO, TO);
+    }
+
+    private static ClaimCircumstances circumstances() {
+        final CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(UUID.randomUUID());
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        return new ClaimCircumstances(UUID.randomUUID(), request, "1");
+    }
+}
@@ -1,32 +1,76 @@
 package uk.gov.dwp.jsa.circumstances.service.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCache;
+import uk.gov.dwp.jsa.circumstances.service.cache.CircumstancesCacheProperties;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.BackgroundWorkRejectedException;
 import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesAlreadyExistsException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesModifiedException;
+import uk.gov.dwp.jsa.circumstances.service.exceptions.CircumstancesNotFoundException;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetrics;
+import uk.gov.dwp.jsa.circumstances.service.metrics.CircumstancesMetricsProperties;
+import uk.gov.dwp.jsa.circumstances.service.migration.EncryptionMigration;
+import uk.gov.dwp.jsa.circumstances.service.migration.MigrationJob;
+import uk.gov.dwp.jsa.circumstances.service.migration.MigrationJobs;
 import uk.gov.dwp.jsa.circumstances.service.models.db.ClaimCircumstances;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesCreateResult;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesMetadata;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
 import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesResponse;
+import uk.gov.dwp.jsa.circumstances.service.models.http.MigrationJobResponse;
+import uk.gov.dwp.jsa.circumstances.service.replica.RecentWrites;
+import uk.gov.dwp.jsa.circumstances.service.replica.ReplicaProperties;
+import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesReader;
 import uk.gov.dwp.jsa.circumstances.service.repositories.CircumstancesRepository;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,8 +78,6 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class CircumstancesServiceTest {
 
-    private static final String EXPECTED_JSON = "DUMMY_JSON";
-
     private static final UUID VALID_CLAIMANT_ID = UUID.randomUUID();
 
     private static final UUID EXPECTED_CLAIM_CIRCUMSTANCES_ID = UUID.randomUUID();
@@ -50,8 +92,7 @@ public class CircumstancesServiceTest {
 
     private static final int BATCH_LIMIT = 7;
 
-    private static final ArrayList<ClaimCircumstances> circumstancesList =
-            new ArrayList<ClaimCircumstances>() {{ add(EXPECTED_CLAIM_CIRCUMSTANCES); }};
+    private static final int INSERT_CHUNK_SIZE = 2;
 
 
     private CircumstancesService sut;
@@ -60,17 +101,39 @@ public class CircumstancesServiceTest {
     private CircumstancesRepository repository;
 
     @Mock
-    private ObjectMapper mapper;
+    private CircumstancesReader reader;
+
+    private final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+
+    @Mock
+    private EncryptionMigration encryptionMigration;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final MigrationJobs migrationJobs = new MigrationJobs(new SimpleMeterRegistry());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CircumstancesCache cache = new CircumstancesCache(disabledCacheProperties(), mapper, null,
+            new SimpleMeterRegistry());
+
+    private final RecentWrites recentWrites = new RecentWrites(enabledReplicaProperties());
 
     @Before
-    public void setUp() throws JsonProcessingException {
+    public void setUp() {
         RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
-        sut = new CircumstancesService(repository, mapper);
-        when(mapper.writeValueAsString(CIRCUMSTANCES_REQUEST)).thenReturn(EXPECTED_JSON);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        sut = service(false);
         when(repository.save(any())).thenReturn(EXPECTED_CLAIM_CIRCUMSTANCES);
         when(repository.findById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES));
-        when(repository.findByClaimantId(VALID_CLAIMANT_ID.toString())).thenReturn(Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES));
-        when(repository.findUnencryptedCircumstances(BATCH_LIMIT)).thenReturn(circumstancesList);
+        when(repository.findByIdWithoutJsonForUpdate(EXPECTED_CLAIM_CIRCUMSTANCES_ID))
+                .thenReturn(Optional.of(buildExpectedCircumstances()));
+        when(repository.findByClaimantId(VALID_CLAIMANT_ID)).thenReturn(Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES));
     }
 
     @Test
@@ -87,17 +150,80 @@ public class CircumstancesServiceTest {
         assertThat(captor.getValue().getClaimCircumstancesJson(), is(CIRCUMSTANCES_REQUEST));
     }
 
+    @Test
+    public void givenValidRequest_Save_ShouldTimeTheHash() {
+        sut.save(CIRCUMSTANCES_REQUEST);
+        assertThat(meterRegistry.get(CircumstancesMetrics.HASH).timer().count(), is(1L));
+    }
+
     @Test
     public void givenValidClaimId_getCircumstancesById_ShouldReturnExpectedCircumstances() {
         assertEquals(EXPECTED_CIRCUMSTANCES_RESPONSE.getId(),
                 sut.getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID).getId());
     }
 
+    @Test
+    public void givenValidClaimId_getCircumstancesById_ShouldCarryTheStoredHash() {
+        ClaimCircumstances claimCircumstances = buildExpectedCircumstances();
+        claimCircumstances.setHash("hash");
+        when(repository.findById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(claimCircumstances));
+
+        assertEquals("hash", sut.getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID).getHash());
+    }
+
     @Test
     public void givenUnvalidClaimId_getCircumstancesById_ShouldReturnNull() {
         assertNull(sut.getCircumstancesById(UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
     }
 
+    @Test
+    public void givenClaimIds_getCircumstancesByIds_ShouldWriteUnknownIdsAsNullInTheRequestedOrder() throws Exception {
+        when(repository.streamByIdInOrderOf(any())).thenReturn(Stream.of(EXPECTED_CLAIM_CIRCUMSTANCES));
+
+        CircumstancesBatch batch = sut.getCircumstancesByIds(Arrays.asList(UNKNOWN_CLAIM_CIRCUMSTANCES_ID,
+                EXPECTED_CLAIM_CIRCUMSTANCES_ID, UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
+        verify(entityManager).detach(EXPECTED_CLAIM_CIRCUMSTANCES);
+        verify(transactionManager).commit(any());
+        JsonNode written = mapper.readTree(mapper.writeValueAsString(batch));
+
+        assertThat(fieldNames(written), contains(UNKNOWN_CLAIM_CIRCUMSTANCES_ID.toString(),
+                EXPECTED_CLAIM_CIRCUMSTANCES_ID.toString()));
+        assertTrue(written.get(UNKNOWN_CLAIM_CIRCUMSTANCES_ID.toString()).isNull());
+        assertEquals(EXPECTED_CLAIM_CIRCUMSTANCES_ID.toString(),
+                written.get(EXPECTED_CLAIM_CIRCUMSTANCES_ID.toString()).get("id").asText());
+        verify(repository, times(1)).streamByIdInOrderOf(
+                "{" + UNKNOWN_CLAIM_CIRCUMSTANCES_ID + "," + EXPECTED_CLAIM_CIRCUMSTANCES_ID + "}");
+    }
+
+    @Test
+    public void givenClaimantIds_getCircumstancesByClaimantIds_ShouldResolveThemWithOneQuery() throws Exception {
+        final UUID unknownClaimantId = UUID.randomUUID();
+        when(repository.streamByClaimantIdInOrderOf(any())).thenReturn(Stream.of(EXPECTED_CLAIM_CIRCUMSTANCES));
+
+        JsonNode written = mapper.readTree(mapper.writeValueAsString(
+                sut.getCircumstancesByClaimantIds(Arrays.asList(VALID_CLAIMANT_ID, unknownClaimantId))));
+
+        assertThat(fieldNames(written),
+                contains(VALID_CLAIMANT_ID.toString(), unknownClaimantId.toString()));
+        assertEquals(EXPECTED_CLAIM_CIRCUMSTANCES_ID.toString(),
+                written.get(VALID_CLAIMANT_ID.toString()).get("id").asText());
+        assertTrue(written.get(unknownClaimantId.toString()).isNull());
+        verify(repository, times(1)).streamByClaimantIdInOrderOf("{" + VALID_CLAIMANT_ID + "," + unknownClaimantId + "}");
+    }
+
+    @Test
+    public void givenRowsOutOfTheRequestedOrder_getCircumstancesByIds_ShouldFailToWrite() {
+        when(repository.streamByIdInOrderOf(any())).thenReturn(Stream.of(EXPECTED_CLAIM_CIRCUMSTANCES));
+
+        try {
+            mapper.writeValueAsString(sut.getCircumstancesByIds(Collections.singletonList(
+                    UNKNOWN_CLAIM_CIRCUMSTANCES_ID)));
+            fail();
+        } catch (JsonProcessingException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
     @Test
     public void givenValidClaimantId_getCircumstancesByClaimantId_ShouldReturnExpectedCircumstances() {
         assertEquals(VALID_CLAIMANT_ID,
@@ -109,13 +235,68 @@ public class CircumstancesServiceTest {
         assertNull(sut.getCircumstancesById(UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
     }
 
+    @Test
+    public void givenValidClaimId_getMetadataById_ShouldNotLoadTheJson() {
+        when(repository.findByIdWithoutJson(EXPECTED_CLAIM_CIRCUMSTANCES_ID))
+                .thenReturn(Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES));
+
+        CircumstancesMetadata metadata = sut.getMetadataById(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
+
+        assertEquals(EXPECTED_CLAIM_CIRCUMSTANCES_ID, metadata.getId());
+        assertEquals(VALID_CLAIMANT_ID, metadata.getClaimantId());
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    public void givenUnknownClaimId_getMetadataById_ShouldReturnNull() {
+        assertNull(sut.getMetadataById(UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
+    }
+
+    @Test
+    public void givenValidClaimantId_getMetadataByClaimantId_ShouldNotLoadTheJson() {
+        when(repository.findByClaimantIdWithoutJson(VALID_CLAIMANT_ID))
+                .thenReturn(Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES));
+
+        CircumstancesMetadata metadata = sut.getMetadataByClaimantId(VALID_CLAIMANT_ID);
+
+        assertEquals(EXPECTED_CLAIM_CIRCUMSTANCES_ID, metadata.getId());
+        verify(repository, never()).findByClaimantId(any());
+    }
+
+    @Test
+    public void givenValidClaimantId_existsByClaimantId_ShouldUseTheExistenceQuery() {
+        when(repository.existsByClaimantIdWithoutJson(VALID_CLAIMANT_ID)).thenReturn(true);
+
+        assertThat(sut.existsByClaimantId(VALID_CLAIMANT_ID), is(true));
+        assertFalse(sut.existsById(UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
+    }
+
     @Test
     public void testGivenValidClaimantIdShouldDeleteTheExpectedData() {
-        sut.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
+        when(repository.deleteByIdInLeavingTombstones(eq(Collections.singletonList(EXPECTED_CLAIM_CIRCUMSTANCES_ID)),
+                any())).thenReturn(Collections.singletonList(VALID_CLAIMANT_ID.toString()));
+
+        assertThat(sut.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID), is(true));
+
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, times(1)).deleteByIdInLeavingTombstones(
+                eq(Collections.singletonList(EXPECTED_CLAIM_CIRCUMSTANCES_ID)), captor.capture());
+        assertFalse(captor.getValue().isAfter(LocalDateTime.now()));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    public void testGivenUnknownIdDeleteShouldReturnFalse() {
+        assertFalse(sut.delete(UNKNOWN_CLAIM_CIRCUMSTANCES_ID));
+    }
+
+    @Test
+    public void testGivenIdsDeleteByIdsShouldReturnDeletedCount() {
+        List<UUID> ids = Arrays.asList(EXPECTED_CLAIM_CIRCUMSTANCES_ID, UNKNOWN_CLAIM_CIRCUMSTANCES_ID);
+        when(repository.deleteByIdInLeavingTombstones(eq(ids), any()))
+                .thenReturn(Collections.singletonList(VALID_CLAIMANT_ID.toString()));
 
-        ArgumentCaptor<UUID> captor = ArgumentCaptor.forClass(UUID.class);
-        verify(repository, times(1)).deleteById(captor.capture());
-        assertThat(captor.getValue(), is(EXPECTED_CLAIM_CIRCUMSTANCES_ID));
+        assertThat(sut.deleteByIds(ids), is(1));
     }
 
     @Test
@@ -128,8 +309,128 @@ public class CircumstancesServiceTest {
     public void givenValidRequest_Update_ShouldSaveTheExpectedDataToRepository() {
         sut.update(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST);
         ArgumentCaptor<ClaimCircumstances> captor = ArgumentCaptor.forClass(ClaimCircumstances.class);
-        verify(repository, times(1)).save(captor.capture());
+        verify(repository, times(1)).saveAndFlush(captor.capture());
         assertThat(captor.getValue().getClaimCircumstancesJson(), is(CIRCUMSTANCES_REQUEST));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    public void givenValidRequest_Update_ShouldEvictTheCachedCircumstances() {
+        sut.update(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST);
+        verify(cache).evict(EXPECTED_CLAIM_CIRCUMSTANCES_ID, VALID_CLAIMANT_ID);
+    }
+
+    @Test
+    public void givenValidRequest_Save_ShouldEvictTheCachedClaimant() {
+        sut.save(CIRCUMSTANCES_REQUEST);
+        verify(cache).evict(EXPECTED_CLAIM_CIRCUMSTANCES_ID, VALID_CLAIMANT_ID);
+    }
+
+    @Test
+    public void givenJooqReads_getCircumstancesById_ShouldNotLoadTheEntity() {
+        CircumstancesResponse response = new CircumstancesResponse(EXPECTED_CLAIM_CIRCUMSTANCES);
+        when(reader.findById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(response));
+
+        assertEquals(response, service(true).getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    public void givenJooqReads_getCircumstancesByClaimantId_ShouldNotLoadTheEntity() {
+        when(reader.findByClaimantId(VALID_CLAIMANT_ID)).thenReturn(Optional.empty());
+
+        assertNull(service(true).getCircumstancesByClaimantId(VALID_CLAIMANT_ID));
+        verify(repository, never()).findByClaimantId(any());
+    }
+
+    @Test
+    public void givenUnwrittenClaim_getCircumstancesById_ShouldAllowTheReplica() {
+        when(repository.findById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenAnswer(invocation -> {
+            assertFalse(recentWrites.isPrimaryRequired());
+            return Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES);
+        });
+
+        assertNotNull(sut.getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID));
+    }
+
+    @Test
+    public void givenSavedClaim_getCircumstancesById_ShouldReadFromThePrimary() {
+        sut.save(CIRCUMSTANCES_REQUEST);
+        when(repository.findById(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenAnswer(invocation -> {
+            assertTrue(recentWrites.isPrimaryRequired());
+            return Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES);
+        });
+        when(repository.findByClaimantId(VALID_CLAIMANT_ID)).thenAnswer(invocation -> {
+            assertTrue(recentWrites.isPrimaryRequired());
+            return Optional.of(EXPECTED_CLAIM_CIRCUMSTANCES);
+        });
+
+        assertNotNull(sut.getCircumstancesById(EXPECTED_CLAIM_CIRCUMSTANCES_ID));
+        assertNotNull(sut.getCircumstancesByClaimantId(VALID_CLAIMANT_ID));
+        assertFalse(recentWrites.isPrimaryRequired());
+    }
+
+    @Test
+    public void givenIds_Delete_ShouldEvictTheCachedCircumstances() {
+        List<UUID> ids = Arrays.asList(EXPECTED_CLAIM_CIRCUMSTANCES_ID, UNKNOWN_CLAIM_CIRCUMSTANCES_ID);
+        when(repository.deleteByIdInLeavingTombstones(eq(Collections.singletonList(EXPECTED_CLAIM_CIRCUMSTANCES_ID)),
+                any())).thenReturn(Collections.singletonList(VALID_CLAIMANT_ID.toString()));
+        when(repository.deleteByIdInLeavingTombstones(eq(ids), any()))
+                .thenReturn(Arrays.asList(VALID_CLAIMANT_ID.toString(), null));
+        sut.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
+        sut.deleteByIds(ids);
+
+        verify(cache).evictAll(Collections.singletonList(EXPECTED_CLAIM_CIRCUMSTANCES_ID),
+                Collections.singletonList(VALID_CLAIMANT_ID));
+        verify(cache).evictAll(ids, Collections.singletonList(VALID_CLAIMANT_ID));
+    }
+
+    @Test
+    public void givenDeletedClaim_getCircumstancesByClaimantId_ShouldReadFromThePrimary() {
+        when(repository.deleteByIdInLeavingTombstones(eq(Collections.singletonList(EXPECTED_CLAIM_CIRCUMSTANCES_ID)),
+                any())).thenReturn(Collections.singletonList(VALID_CLAIMANT_ID.toString()));
+        sut.delete(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
+        when(repository.findByClaimantId(VALID_CLAIMANT_ID)).thenAnswer(invocation -> {
+            assertTrue(recentWrites.isPrimaryRequired());
+            return Optional.empty();
+        });
+
+        assertNull(sut.getCircumstancesByClaimantId(VALID_CLAIMANT_ID));
+        verify(repository).findByClaimantId(VALID_CLAIMANT_ID);
+    }
+
+    @Test
+    public void givenUnchangedRequest_Update_ShouldNotWriteToRepository() throws IOException {
+        ClaimCircumstances unchanged = buildExpectedCircumstances();
+        unchanged.setHash(expectedHash());
+        when(repository.findByIdWithoutJsonForUpdate(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(unchanged));
+
+        String hash = sut.updateIfMatch(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST, null);
+
+        assertEquals(expectedHash(), hash);
+        verify(repository, never()).saveAndFlush(any());
+        verify(cache, never()).evict(any(), any());
+    }
+
+    @Test
+    public void givenMatchingIfMatch_Update_ShouldSaveAndReturnTheNewHash() throws IOException {
+        ClaimCircumstances stored = buildExpectedCircumstances();
+        stored.setHash("stored");
+        when(repository.findByIdWithoutJsonForUpdate(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(stored));
+
+        String hash = sut.updateIfMatch(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST, "\"stored\"");
+
+        assertEquals(expectedHash(), hash);
+        verify(repository, times(1)).saveAndFlush(stored);
+    }
+
+    @Test(expected = CircumstancesModifiedException.class)
+    public void givenStaleIfMatch_Update_ThenException() {
+        ClaimCircumstances stored = buildExpectedCircumstances();
+        stored.setHash("stored");
+        when(repository.findByIdWithoutJsonForUpdate(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.of(stored));
+
+        sut.updateIfMatch(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST, "\"stale\"");
     }
 
     @Test(expected = CircumstancesAlreadyExistsException.class)
@@ -138,21 +439,188 @@ public class CircumstancesServiceTest {
         sut.save(CIRCUMSTANCES_REQUEST);
     }
 
-    @Test(expected = CircumstancesAlreadyExistsException.class)
+    @Test(expected = CircumstancesNotFoundException.class)
     public void givenWrongRequest_WhenUpdate_ThenException(){
         sut.update(UUID.randomUUID(),CIRCUMSTANCES_REQUEST);
     }
 
     @Test
-    public void givenValidExistingDataRequest_CallsSaveAll(){
-        sut.saveEncrypted(BATCH_LIMIT);
-        verify(repository).saveAll(circumstancesList);
+    public void givenUnknownId_UpdateIfMatch_ShouldThrowNotFoundWithoutSaving() {
+        when(repository.findByIdWithoutJsonForUpdate(EXPECTED_CLAIM_CIRCUMSTANCES_ID)).thenReturn(Optional.empty());
+
+        try {
+            sut.updateIfMatch(EXPECTED_CLAIM_CIRCUMSTANCES_ID, CIRCUMSTANCES_REQUEST, "\"stored\"");
+            fail("Expected CircumstancesNotFoundException");
+        } catch (CircumstancesNotFoundException e) {
+            verify(repository, never()).saveAndFlush(any());
+        }
+    }
+
+    @Test
+    public void givenValidExistingDataRequest_StartsAnEncryptionMigrationJob(){
+        MigrationJobResponse job = sut.saveEncrypted(BATCH_LIMIT);
+
+        ArgumentCaptor<MigrationJob> captor = ArgumentCaptor.forClass(MigrationJob.class);
+        verify(encryptionMigration).start(captor.capture());
+        assertEquals(job.getId(), captor.getValue().getId());
+        assertEquals(BATCH_LIMIT, captor.getValue().getRowLimit());
+        assertEquals(MigrationJob.Status.RUNNING, job.getStatus());
+        assertEquals(job.getId(), sut.getMigrationJob(job.getId()).getId());
+    }
+
+    @Test
+    public void givenRunningJob_SaveEncrypted_ShouldReturnItInsteadOfStartingAnother(){
+        MigrationJobResponse first = sut.saveEncrypted(BATCH_LIMIT);
+        MigrationJobResponse second = sut.saveEncrypted(BATCH_LIMIT);
+
+        assertEquals(first.getId(), second.getId());
+        verify(encryptionMigration, times(1)).start(any());
+    }
+
+    @Test
+    public void givenFullBackgroundExecutor_SaveEncrypted_ThenException(){
+        doThrow(new TaskRejectedException("full")).when(encryptionMigration).start(any());
+
+        try {
+            sut.saveEncrypted(BATCH_LIMIT);
+            fail();
+        } catch (BackgroundWorkRejectedException e) {
+            verify(encryptionMigration).start(any());
+        }
+    }
+
+    @Test
+    public void givenRunningJob_PauseResumeAndCancel_ShouldChangeItsStatus(){
+        UUID jobId = sut.saveEncrypted(BATCH_LIMIT).getId();
+
+        assertEquals(MigrationJob.Status.PAUSED, sut.pauseMigrationJob(jobId).getStatus());
+        assertEquals(MigrationJob.Status.RUNNING, sut.resumeMigrationJob(jobId).getStatus());
+        assertEquals(MigrationJob.Status.CANCELLED, sut.cancelMigrationJob(jobId).getStatus());
+        assertEquals(MigrationJob.Status.CANCELLED, sut.resumeMigrationJob(jobId).getStatus());
+    }
+
+    @Test
+    public void givenUnknownJob_GetMigrationJob_ShouldReturnNull(){
+        assertNull(sut.getMigrationJob(UUID.randomUUID()));
+        assertNull(sut.cancelMigrationJob(UUID.randomUUID()));
+    }
+
+    @Test
+    public void givenBulkRequests_SaveAll_ShouldReportAResultPerRequestInOrder() {
+        givenSaveAllAssignsIds();
+        UUID existingClaimantId = UUID.randomUUID();
+        UUID newClaimantId = UUID.randomUUID();
+        when(repository.findExistingClaimantIds(any())).thenReturn(Arrays.asList(existingClaimantId));
+        CircumstancesRequest invalid = buildValidRequest(UUID.randomUUID());
+        invalid.setClaimStartDate(null);
+
+        List<CircumstancesCreateResult> results = sut.saveAll(Arrays.asList(
+                buildValidRequest(newClaimantId),
+                invalid,
+                buildValidRequest(existingClaimantId),
+                buildValidRequest(newClaimantId),
+                buildValidRequest(null)));
+
+        assertThat(results.stream().map(CircumstancesCreateResult::getStatus).collect(Collectors.toList()), contains(
+                CircumstancesCreateResult.Status.CREATED,
+                CircumstancesCreateResult.Status.INVALID,
+                CircumstancesCreateResult.Status.CONFLICT,
+                CircumstancesCreateResult.Status.CONFLICT,
+                CircumstancesCreateResult.Status.INVALID));
+        assertEquals(newClaimantId, results.get(0).getClaimantId());
+        assertNotNull(results.get(0).getId());
+        assertNull(results.get(2).getId());
+        verify(repository).flush();
+        verify(cache).evictAll(Collections.singletonList(results.get(0).getId()),
+                Collections.singletonList(newClaimantId));
+    }
+
+    @Test
+    public void givenMoreRequestsThanAChunk_SaveAll_ShouldInsertEachChunkInItsOwnTransaction() {
+        givenSaveAllAssignsIds();
+
+        List<CircumstancesCreateResult> results = sut.saveAll(Arrays.asList(
+                buildValidRequest(UUID.randomUUID()),
+                buildValidRequest(UUID.randomUUID()),
+                buildValidRequest(UUID.randomUUID())));
+
+        assertThat(results.stream().map(CircumstancesCreateResult::getStatus).collect(Collectors.toList()),
+                everyItem(is(CircumstancesCreateResult.Status.CREATED)));
+        verify(repository, times(2)).saveAll(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void givenConcurrentCreate_SaveAll_ShouldFallBackToOneInsertPerRequest() {
+        UUID createdElsewhere = UUID.randomUUID();
+        doThrow(new DataIntegrityViolationException("duplicate")).when(repository).flush();
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            ClaimCircumstances claimCircumstances = invocation.getArgument(0);
+            if (claimCircumstances.getClaimantId().equals(createdElsewhere)) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            claimCircumstances.setId(UUID.randomUUID());
+            return claimCircumstances;
+        });
+
+        List<CircumstancesCreateResult> results = sut.saveAll(Arrays.asList(
+                buildValidRequest(UUID.randomUUID()),
+                buildValidRequest(createdElsewhere)));
+
+        assertEquals(CircumstancesCreateResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(CircumstancesCreateResult.Status.CONFLICT, results.get(1).getStatus());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    private void givenSaveAllAssignsIds() {
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<ClaimCircumstances> entities = invocation.getArgument(0);
+            entities.forEach(claimCircumstances -> claimCircumstances.setId(UUID.randomUUID()));
+            return entities;
+        });
+    }
+
+    private static List<String> fieldNames(final JsonNode node) {
+        final List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static CircumstancesRequest buildValidRequest(final UUID claimantId) {
+        CircumstancesRequest circumstancesRequest = new CircumstancesRequest();
+        circumstancesRequest.setClaimantId(claimantId);
+        circumstancesRequest.setClaimStartDate(LocalDate.of(2020, 1, 1));
+        circumstancesRequest.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        return circumstancesRequest;
+    }
+
+    private CircumstancesService service(final boolean jooqReads) {
+        return new CircumstancesService(repository, reader, mapper, cache, recentWrites, encryptionMigration,
+                migrationJobs, transactionManager, entityManager, Validation.buildDefaultValidatorFactory().getValidator(),
+                new CircumstancesMetrics(meterRegistry, new CircumstancesMetricsProperties()), INSERT_CHUNK_SIZE,
+                jooqReads);
+    }
+
+    private static ReplicaProperties enabledReplicaProperties() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        return properties;
+    }
+
+    private static CircumstancesCacheProperties disabledCacheProperties() {
+        CircumstancesCacheProperties properties = new CircumstancesCacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    private String expectedHash() throws IOException {
+        return new ContentHasher(mapper).sha256Hex(CIRCUMSTANCES_REQUEST);
     }
 
     private static ClaimCircumstances buildExpectedCircumstances() {
         ClaimCircumstances claimCircumstances = new ClaimCircumstances();
         claimCircumstances.setId(EXPECTED_CLAIM_CIRCUMSTANCES_ID);
-        claimCircumstances.setClaimantId(VALID_CLAIMANT_ID.toString());
+        claimCircumstances.setClaimantId(VALID_CLAIMANT_ID);
         claimCircumstances.setClaimCircumstancesJson(CIRCUMSTANCES_REQUEST);
         CIRCUMSTANCES_REQUEST.setClaimantId(VALID_CLAIMANT_ID);
         return claimCircumstances;
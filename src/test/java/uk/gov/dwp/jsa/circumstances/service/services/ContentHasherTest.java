@@ -0,0 +1,76 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+import uk.gov.dwp.jsa.circumstances.service.config.ServiceObjectMapperProvider;
+import uk.gov.dwp.jsa.circumstances.service.models.http.CircumstancesRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class ContentHasherTest {
+
+    private final ObjectMapper mapper = new ServiceObjectMapperProvider().get();
+    private final ContentHasher sut = new ContentHasher(mapper);
+
+    @Test
+    public void sha256Hex_ShouldHashTheJsonWithPropertiesInAlphabeticalOrder() throws IOException {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("b", 1);
+        value.put("a", new Bean());
+
+        assertEquals(DigestUtils.sha256Hex("{\"a\":{\"x\":\"x\",\"y\":\"y\"},\"b\":1}"), sut.sha256Hex(value));
+    }
+
+    @Test
+    public void sha256Hex_ShouldNotDependOnMapInsertionOrder() throws IOException {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("a", 1);
+        first.put("b", 2);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("b", 2);
+        second.put("a", 1);
+
+        assertEquals(sut.sha256Hex(first), sut.sha256Hex(second));
+    }
+
+    @Test
+    public void sha256Hex_ShouldChangeWithTheCircumstances() throws IOException {
+        CircumstancesRequest request = new CircumstancesRequest();
+        request.setClaimantId(UUID.randomUUID());
+        request.setDateOfClaim(LocalDate.of(2020, 1, 2));
+        String hash = sut.sha256Hex(request);
+        request.setDateOfClaim(LocalDate.of(2020, 1, 3));
+
+        assertEquals(64, hash.length());
+        assertNotEquals(hash, sut.sha256Hex(request));
+    }
+
+    @Test
+    public void sha256Hex_ShouldLeaveTheGivenMapperAsItWas() throws IOException {
+        sut.sha256Hex(new HashMap<>());
+
+        assertFalse(mapper.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Bean {
+        public String getY() {
+            return "y";
+        }
+
+        public String getX() {
+            return "x";
+        }
+    }
+}
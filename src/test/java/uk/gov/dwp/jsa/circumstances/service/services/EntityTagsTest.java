@@ -0,0 +1,61 @@
+package uk.gov.dwp.jsa.circumstances.service.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityTagsTest {
+
+    private static final String HASH = "abc123";
+
+    @Test
+    public void from_hash_should_quote_the_hash() {
+        assertEquals("\"abc123\"", EntityTags.fromHash(HASH));
+    }
+
+    @Test
+    public void from_null_hash_should_be_null() {
+        assertNull(EntityTags.fromHash(null));
+    }
+
+    @Test
+    public void matching_tag_should_match() {
+        assertTrue(EntityTags.matches("\"abc123\"", HASH));
+    }
+
+    @Test
+    public void weak_tag_in_a_list_should_match() {
+        assertTrue(EntityTags.matches("\"other\", W/\"abc123\"", HASH));
+    }
+
+    @Test
+    public void wildcard_should_match() {
+        assertTrue(EntityTags.matches("*", HASH));
+    }
+
+    @Test
+    public void different_or_unquoted_tag_should_not_match() {
+        assertFalse(EntityTags.matches("\"other\"", HASH));
+        assertFalse(EntityTags.matches(HASH, HASH));
+    }
+
+    @Test
+    public void missing_header_or_hash_should_not_match() {
+        assertFalse(EntityTags.matches(null, HASH));
+        assertFalse(EntityTags.matches("*", null));
+    }
+
+    @Test
+    public void strong_comparison_should_match_strong_tag_or_wildcard() {
+        assertTrue(EntityTags.matchesStrongly("\"other\", \"abc123\"", HASH));
+        assertTrue(EntityTags.matchesStrongly("*", HASH));
+    }
+
+    @Test
+    public void strong_comparison_should_not_match_weak_tag() {
+        assertFalse(EntityTags.matchesStrongly("W/\"abc123\"", HASH));
+    }
+}
@@ -11,6 +11,7 @@ import java.net.URI;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class ResponseBuilderTest {
 
@@ -93,4 +94,26 @@ public class ResponseBuilderTest {
 
     }
 
+    @Test
+    public void with_etag_should_build_and_contain_etag_header() {
+        ResponseBuilder<String> builder = new ResponseBuilder<>();
+        builder.withStatus(HttpStatus.OK)
+                .withSuccessData(URI.create("http://test"), "data")
+                .withETag("\"hash\"");
+
+        ResponseEntity<ApiResponse<String>> build = builder.build();
+
+        assertEquals("\"hash\"", build.getHeaders().getETag());
+    }
+
+    @Test
+    public void without_etag_should_build_without_etag_header() {
+        ResponseBuilder<String> builder = new ResponseBuilder<>();
+        builder.withStatus(HttpStatus.OK);
+
+        ResponseEntity<ApiResponse<String>> build = builder.build();
+
+        assertNull(build.getHeaders().getETag());
+    }
+
 }